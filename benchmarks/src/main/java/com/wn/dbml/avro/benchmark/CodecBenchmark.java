@@ -0,0 +1,138 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.benchmark.generated.Payment;
+import com.wn.dbml.avro.benchmark.generated.payment_status;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated codec of a translated table with Avro's generic datum writer and reader.
+ * The codec is generated from {@code src/main/dbml/payment.dbml} during the build.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+	static final int RECORDS = 1024;
+	
+	private Payment[] payments;
+	private GenericRecord[] records;
+	private GenericDatumWriter<GenericRecord> writer;
+	private GenericDatumReader<GenericRecord> reader;
+	private ByteArrayOutputStream stream;
+	private BinaryEncoder encoder;
+	private BinaryDecoder decoder;
+	private byte[] encoded;
+	
+	@Setup
+	public void setup() throws IOException {
+		var random = new Random(42);
+		var statuses = payment_status.values();
+		payments = new Payment[RECORDS];
+		records = new GenericRecord[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			var created = Instant.ofEpochSecond(1_700_000_000L + random.nextInt(10_000_000), random.nextInt(1_000_000) * 1_000L);
+			var payment = new Payment(i, new UUID(random.nextLong(), random.nextLong()), BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+					"EUR", statuses[random.nextInt(statuses.length)], random.nextBoolean() ? "payment " + i : null,
+					created, random.nextBoolean() ? created.plusSeconds(3600) : null);
+			payments[i] = payment;
+			records[i] = toGenericRecord(payment);
+		}
+		writer = new GenericDatumWriter<>(Payment.SCHEMA$);
+		reader = new GenericDatumReader<>(Payment.SCHEMA$);
+		stream = new ByteArrayOutputStream();
+		encoder = EncoderFactory.get().binaryEncoder(stream, null);
+		for (var payment : payments) {
+			payment.encode(encoder);
+		}
+		encoder.flush();
+		encoded = stream.toByteArray();
+	}
+	
+	private static GenericRecord toGenericRecord(Payment payment) {
+		var record = new GenericData.Record(Payment.SCHEMA$);
+		record.put("id", payment.id());
+		record.put("reference", payment.reference().toString());
+		record.put("amount", ByteBuffer.wrap(payment.amount().unscaledValue().toByteArray()));
+		record.put("currency", payment.currency());
+		record.put("status", new GenericData.EnumSymbol(payment_status.SCHEMA$, payment.status().name()));
+		record.put("description", payment.description());
+		record.put("created", toEpochMicros(payment.created()));
+		record.put("settled", payment.settled() == null ? null : toEpochMicros(payment.settled()));
+		return record;
+	}
+	
+	private static long toEpochMicros(Instant instant) {
+		return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public int encodeGenerated() throws IOException {
+		stream.reset();
+		for (var payment : payments) {
+			payment.encode(encoder);
+		}
+		encoder.flush();
+		return stream.size();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public int encodeGeneric() throws IOException {
+		stream.reset();
+		for (var record : records) {
+			writer.write(record, encoder);
+		}
+		encoder.flush();
+		return stream.size();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void decodeGenerated(Blackhole blackhole) throws IOException {
+		decoder = DecoderFactory.get().binaryDecoder(encoded, decoder);
+		for (int i = 0; i < RECORDS; i++) {
+			blackhole.consume(Payment.decode(decoder));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void decodeGeneric(Blackhole blackhole) throws IOException {
+		decoder = DecoderFactory.get().binaryDecoder(encoded, decoder);
+		for (int i = 0; i < RECORDS; i++) {
+			blackhole.consume(reader.read(null, decoder));
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.wn.dbml.avro.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic DBML models of configurable size.
+ * The same parameters and seed always produce the same model.
+ */
+public class ModelGenerator {
+	private static final String[] TYPES = {
+			"integer", "bigint", "boolean", "double", "text", "uuid", "date", "time", "timestamp",
+			"timestamptz", "varchar", "varchar(%d)", "decimal(%d)", "decimal(%d,%d)"
+	};
+	private final int tables;
+	private final int columnsPerTable;
+	private final int enums;
+	private final long seed;
+	
+	/**
+	 * @param tables          The number of tables
+	 * @param columnsPerTable The number of columns per table
+	 * @param enums           The number of enums, each of which is used by some of the columns
+	 * @param seed            The seed of the random generator
+	 */
+	public ModelGenerator(int tables, int columnsPerTable, int enums, long seed) {
+		this.tables = tables;
+		this.columnsPerTable = columnsPerTable;
+		this.enums = enums;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Generates the DBML of the model.
+	 */
+	public String dbml() {
+		var random = new Random(seed);
+		var sb = new StringBuilder();
+		for (int t = 0; t < tables; t++) {
+			sb.append("Table table_").append(t).append(" {\n");
+			for (int c = 0; c < columnsPerTable; c++) {
+				sb.append("  column_").append(c).append(' ').append(columnType(random));
+				if (random.nextBoolean()) {
+					sb.append(" [not null]");
+				}
+				sb.append('\n');
+			}
+			sb.append("}\n\n");
+		}
+		for (int e = 0; e < enums; e++) {
+			sb.append("Enum enum_").append(e).append(" {\n");
+			var symbols = 2 + random.nextInt(8);
+			for (int s = 0; s < symbols; s++) {
+				sb.append("  SYMBOL_").append(s).append('\n');
+			}
+			sb.append("}\n\n");
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Generates the column types of the model, in order of occurrence.
+	 */
+	public List<String> columnTypes() {
+		var random = new Random(seed);
+		var types = new ArrayList<String>(tables * columnsPerTable);
+		for (int i = 0; i < tables * columnsPerTable; i++) {
+			var type = columnType(random);
+			random.nextBoolean();
+			if (!type.startsWith("enum_")) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+	
+	/**
+	 * Generates the table, column and enum symbol names of the model.
+	 */
+	public List<String> names() {
+		var names = new ArrayList<String>();
+		for (int t = 0; t < tables; t++) {
+			names.add("table_" + t);
+		}
+		for (int c = 0; c < columnsPerTable; c++) {
+			names.add("column_" + c);
+		}
+		for (int e = 0; e < enums; e++) {
+			names.add("enum_" + e);
+		}
+		return names;
+	}
+	
+	private String columnType(Random random) {
+		if (enums > 0 && random.nextInt(10) == 0) {
+			return "enum_" + random.nextInt(enums);
+		}
+		var type = TYPES[random.nextInt(TYPES.length)];
+		var precision = 1 + random.nextInt(38);
+		return type.formatted(precision, random.nextInt(precision + 1));
+	}
+}
@@ -0,0 +1,29 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.TypeMapper;
+
+import java.util.Map;
+
+/**
+ * The type resolution of TypeMapper before the introduction of its prefix index: a scan over all type mappings.
+ * Kept as the baseline of {@link TypeResolutionBenchmark}.
+ * Logical types are rendered as their underlying type, so only primitive column types map to the same JSON as {@link TypeMapper#map(String)}.
+ */
+class ScanTypeMapper {
+	private final Config config;
+	
+	ScanTypeMapper(Config config) {
+		this.config = config;
+	}
+	
+	String map(String columnType) {
+		var type = config.normalize(columnType);
+		var avroType = config.typeMappings().entrySet().stream()
+				.filter(e -> e.getValue().stream().anyMatch(type::startsWith))
+				.findAny()
+				.map(Map.Entry::getKey)
+				.orElseThrow(() -> new IllegalArgumentException("Unmapped type: " + columnType));
+		return new TypeMapper.AvroType(avroType, null, Map.of()).toJson();
+	}
+}
@@ -0,0 +1,58 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.DbmlAvroTranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the translation of whole DBML models.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranslatorBenchmark {
+	@Param({"100", "1000"})
+	private int tables;
+	@Param({"20"})
+	private int columnsPerTable;
+	@Param({"50", "600"})
+	private int enums;
+	@Param({"42"})
+	private long seed;
+	
+	private String dbml;
+	private DbmlAvroTranslator translator;
+	
+	@Setup
+	public void setup() {
+		dbml = new ModelGenerator(tables, columnsPerTable, enums, seed).dbml();
+		translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build());
+	}
+	
+	@Benchmark
+	public List<DbmlAvroTranslator.Result> translateString() {
+		return translator.translate(dbml);
+	}
+	
+	@Benchmark
+	public List<DbmlAvroTranslator.Result> translateReader() {
+		return translator.translate(new StringReader(dbml));
+	}
+}
@@ -0,0 +1,59 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.TypeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the mapping of single column types, with and without the memoized column types of TypeMapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeMapperBenchmark {
+	static final int COLUMNS = 1024;
+	
+	private String[] columnTypes;
+	private TypeMapper typeMapper;
+	private TypeMapper memoizedTypeMapper;
+	
+	@Setup
+	public void setup() {
+		columnTypes = new ModelGenerator(COLUMNS, 1, 0, 42).columnTypes().toArray(String[]::new);
+		var config = Config.builder().build();
+		typeMapper = new TypeMapper(config, 0);
+		memoizedTypeMapper = new TypeMapper(config);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COLUMNS)
+	public void map(Blackhole blackhole) {
+		for (var columnType : columnTypes) {
+			blackhole.consume(typeMapper.map(columnType));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COLUMNS)
+	public void mapMemoized(Blackhole blackhole) {
+		for (var columnType : columnTypes) {
+			blackhole.consume(memoizedTypeMapper.map(columnType));
+		}
+	}
+}
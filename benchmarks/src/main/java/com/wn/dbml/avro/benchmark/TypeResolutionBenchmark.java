@@ -0,0 +1,70 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.TypeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the prefix index of TypeMapper with a scan over all type mappings,
+ * on configs with additional custom mappings.
+ * Both map the column types to JSON without memoization, so every mapping goes through the type resolution.
+ * The column types are primitive types, so the rendering of logical types does not dominate the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeResolutionBenchmark {
+	private static final String[] COLUMN_TYPES = {
+			"integer", "bigint", "boolean", "double", "text", "varchar(255)", "custom_type_0", "custom_type_99"
+	};
+	
+	@Param({"100", "500"})
+	private int customMappings;
+	
+	private TypeMapper typeMapper;
+	private ScanTypeMapper scanTypeMapper;
+	
+	@Setup
+	public void setup() {
+		var builder = Config.builder();
+		for (int i = 0; i < customMappings; i++) {
+			builder.addTypeMapping(i % 2 == 0 ? "string" : "long", "custom_type_" + i);
+		}
+		var config = builder.build();
+		typeMapper = new TypeMapper(config, 0);
+		scanTypeMapper = new ScanTypeMapper(config);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(8)
+	public void prefixIndex(Blackhole blackhole) {
+		for (var columnType : COLUMN_TYPES) {
+			blackhole.consume(typeMapper.map(columnType));
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(8)
+	public void scan(Blackhole blackhole) {
+		for (var columnType : COLUMN_TYPES) {
+			blackhole.consume(scanTypeMapper.map(columnType));
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.wn.dbml.avro.benchmark;
+
+import com.wn.dbml.avro.NameValidator;
+import com.wn.dbml.avro.NamespaceValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the validation of names and namespaces.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+	static final int NAMES = 1024;
+	
+	private String[] names;
+	private NameValidator nameValidator;
+	private NamespaceValidator namespaceValidator;
+	
+	@Setup
+	public void setup() {
+		names = new ModelGenerator(NAMES / 2, NAMES / 4, NAMES / 4, 42).names().toArray(String[]::new);
+		nameValidator = new NameValidator();
+		namespaceValidator = new NamespaceValidator(nameValidator);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(NAMES)
+	public void validateName(Blackhole blackhole) {
+		for (var name : names) {
+			blackhole.consume(nameValidator.isValid(name));
+		}
+	}
+	
+	@Benchmark
+	public boolean validateNamespace() {
+		return namespaceValidator.isValid("com.example.schemas.generated");
+	}
+}
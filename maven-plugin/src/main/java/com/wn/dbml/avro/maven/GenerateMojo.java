@@ -0,0 +1,122 @@
+package com.wn.dbml.avro.maven;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.EncodingProfile;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Generates an Avro schema file ({@code <name>.avsc}) for each table and enum of the DBML files in the source directory.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+	/**
+	 * The directory containing the DBML files ({@code *.dbml}), searched recursively.
+	 */
+	@Parameter(defaultValue = "${project.basedir}/src/main/dbml", required = true)
+	private File sourceDirectory;
+	
+	/**
+	 * The directory the schema files are written to.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/generated-sources/avro", required = true)
+	private File outputDirectory;
+	
+	/**
+	 * The file storing the hash of the inputs of the last run.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/dbml-avro/state", required = true)
+	private File stateFile;
+	
+	/**
+	 * The namespace of the generated schemas.
+	 */
+	@Parameter
+	private String namespace;
+	
+	/**
+	 * Additional mappings from Avro types to comma-separated DBML types.
+	 */
+	@Parameter
+	private Map<String, String> typeMappings = Map.of();
+	
+	/**
+	 * The scale to be used for decimals without an explicitly specified scale.
+	 */
+	@Parameter(defaultValue = "0")
+	private int defaultScale;
+	
+	/**
+	 * The encoding profile, {@code STANDARD} or {@code COMPACT}.
+	 */
+	@Parameter(defaultValue = "STANDARD")
+	private EncodingProfile encodingProfile;
+	
+	/**
+	 * Skips the generation.
+	 */
+	@Parameter(property = "dbml-avro.skip", defaultValue = "false")
+	private boolean skip;
+	
+	@Parameter(defaultValue = "${plugin.version}", readonly = true)
+	private String pluginVersion;
+	
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		if (skip) {
+			getLog().info("Skipping schema generation");
+			return;
+		}
+		if (!sourceDirectory.isDirectory()) {
+			getLog().info("No DBML source directory: " + sourceDirectory);
+			return;
+		}
+		try {
+			var generator = new SchemaGenerator(createConfig(), pluginVersion, stateFile.toPath());
+			var outcome = generator.generate(findInputs(sourceDirectory.toPath()), outputDirectory.toPath());
+			if (outcome.upToDate()) {
+				getLog().info("Schemas are up to date");
+			} else {
+				getLog().info("Wrote %d schema(s), %d unchanged, %d deleted".formatted(outcome.written(), outcome.unchanged(), outcome.deleted()));
+			}
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			throw new MojoFailureException("Schema generation failed: " + e.getMessage(), e);
+		} catch (IOException e) {
+			throw new MojoExecutionException("Schema generation failed: " + e.getMessage(), e);
+		}
+	}
+	
+	private Config createConfig() {
+		var builder = Config.builder()
+				.setNamespace(namespace)
+				.setDefaultScale(defaultScale)
+				.setEncodingProfile(encodingProfile);
+		typeMappings.forEach((avroType, dbmlTypes) -> {
+			for (var dbmlType : dbmlTypes.split(",")) {
+				builder.addTypeMapping(avroType, dbmlType.strip());
+			}
+		});
+		return builder.build();
+	}
+	
+	private static List<Path> findInputs(Path sourceDirectory) throws IOException {
+		try (Stream<Path> paths = Files.walk(sourceDirectory)) {
+			return paths.filter(path -> path.toString().endsWith(".dbml"))
+					.filter(Files::isRegularFile)
+					.sorted()
+					.toList();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.wn.dbml.avro.maven;
+
+import com.wn.dbml.avro.Config;
+import com.wn.dbml.avro.DbmlAvroTranslator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Generates Avro schema files from DBML files.
+ * Skips the generation if neither the DBML files nor the config have changed since the last run
+ * and all generated files still exist, and only writes schema files whose content has changed.
+ * The generated files are listed in a manifest in the output directory,
+ * so that files which are no longer generated are deleted by the next run.
+ * Fails without writing any schema file, if a table or enum is translated from more than one DBML file.
+ */
+public class SchemaGenerator {
+	/**
+	 * The name of the manifest listing the generated files.
+	 */
+	public static final String MANIFEST = ".dbml-avro-manifest";
+	private final Config config;
+	private final String version;
+	private final Path stateFile;
+	
+	/**
+	 * @param config    The translator config
+	 * @param version   The generator version, which invalidates the state of previous versions
+	 * @param stateFile The file storing the hash of the inputs of the last run
+	 */
+	public SchemaGenerator(Config config, String version, Path stateFile) {
+		this.config = config;
+		this.version = version;
+		this.stateFile = stateFile;
+	}
+	
+	/**
+	 * Generates the schema files.
+	 *
+	 * @param inputs          the DBML files
+	 * @param outputDirectory the directory of the schema files
+	 * @return the outcome
+	 * @throws IllegalStateException if the inputs translate to schemas of the same name
+	 */
+	public Outcome generate(List<Path> inputs, Path outputDirectory) throws IOException {
+		var hash = hash(inputs);
+		var manifest = outputDirectory.resolve(MANIFEST);
+		var previous = readManifest(manifest);
+		if (previous != null && Files.isRegularFile(stateFile) && hash.equals(Files.readString(stateFile))
+				&& previous.stream().allMatch(name -> Files.isRegularFile(outputDirectory.resolve(name)))) {
+			return new Outcome(true, 0, 0, 0);
+		}
+		var translator = new DbmlAvroTranslator(config);
+		var schemas = new LinkedHashMap<String, String>();
+		var sources = new HashMap<String, Path>();
+		for (var input : inputs) {
+			try (var reader = Files.newBufferedReader(input)) {
+				for (var result : translator.translate(reader)) {
+					var source = sources.putIfAbsent(result.name(), input);
+					if (source != null) {
+						throw new IllegalStateException("Duplicate schema %s in %s, which is also translated from %s".formatted(result.name(), input, source));
+					}
+					schemas.put(result.name() + ".avsc", result.schema());
+				}
+			}
+		}
+		Files.createDirectories(outputDirectory);
+		int written = 0;
+		int unchanged = 0;
+		for (var schema : schemas.entrySet()) {
+			if (writeIfChanged(outputDirectory.resolve(schema.getKey()), schema.getValue())) {
+				written++;
+			} else {
+				unchanged++;
+			}
+		}
+		var generated = schemas.keySet();
+		int deleted = 0;
+		if (previous != null) {
+			for (var name : previous) {
+				if (!generated.contains(name) && Files.deleteIfExists(outputDirectory.resolve(name))) {
+					deleted++;
+				}
+			}
+		}
+		Files.write(manifest, generated);
+		Files.createDirectories(stateFile.toAbsolutePath().getParent());
+		Files.writeString(stateFile, hash);
+		return new Outcome(false, written, unchanged, deleted);
+	}
+	
+	/**
+	 * Reads the names of the files generated by the last run.
+	 *
+	 * @return the names or null, if there is no manifest
+	 */
+	private static List<String> readManifest(Path manifest) throws IOException {
+		if (!Files.isRegularFile(manifest)) {
+			return null;
+		}
+		return Files.readAllLines(manifest).stream()
+				.filter(name -> !name.isBlank())
+				.toList();
+	}
+	
+	private static boolean writeIfChanged(Path file, String content) throws IOException {
+		if (Files.isRegularFile(file) && Files.readString(file).equals(content)) {
+			return false;
+		}
+		Files.writeString(file, content);
+		return true;
+	}
+	
+	private String hash(List<Path> inputs) throws IOException {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256");
+			update(digest, version);
+			update(digest, config.namespace());
+			var typeMappings = new TreeMap<String, TreeSet<String>>();
+			config.typeMappings().forEach((avroType, dbmlTypes) -> typeMappings.put(avroType, new TreeSet<>(dbmlTypes)));
+			typeMappings.forEach((avroType, dbmlTypes) -> {
+				update(digest, avroType);
+				dbmlTypes.forEach(dbmlType -> update(digest, dbmlType));
+			});
+			update(digest, String.valueOf(config.defaultScale()));
+			update(digest, config.encodingProfile().name());
+			for (var input : inputs) {
+				update(digest, input.toAbsolutePath().normalize().toString());
+				var content = Files.readAllBytes(input);
+				update(digest, String.valueOf(content.length));
+				digest.update(content);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static void update(MessageDigest digest, String value) {
+		var bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+		digest.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+		digest.update(bytes);
+	}
+	
+	/**
+	 * The outcome of a generation.
+	 *
+	 * @param upToDate  Whether the generation was skipped, because nothing has changed.
+	 * @param written   The number of written schema files.
+	 * @param unchanged The number of schema files whose content did not change.
+	 * @param deleted   The number of schema files deleted, because they are no longer generated.
+	 */
+	public record Outcome(
+			boolean upToDate,
+			int written,
+			int unchanged,
+			int deleted
+	) {
+	}
+}
@@ -0,0 +1,136 @@
+package com.wn.dbml.avro.maven;
+
+import com.wn.dbml.avro.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaGeneratorTest {
+	@TempDir
+	Path directory;
+	
+	@Test
+	void generate() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}""");
+		var output = directory.resolve("avro");
+		var generator = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state"));
+		var outcome = generator.generate(List.of(input), output);
+		assertEquals(new SchemaGenerator.Outcome(false, 1, 0, 0), outcome);
+		assertTrue(Files.readString(output.resolve("User.avsc")).contains("\"name\": \"User\""));
+	}
+	
+	@Test
+	void skipUnchanged() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}""");
+		var output = directory.resolve("avro");
+		var generator = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state"));
+		generator.generate(List.of(input), output);
+		assertTrue(generator.generate(List.of(input), output).upToDate());
+	}
+	
+	@Test
+	void writeOnlyChanged() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}
+				
+				Table Order {
+					id integer
+				}""");
+		var output = directory.resolve("avro");
+		new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state")).generate(List.of(input), output);
+		Files.writeString(input, Files.readString(input).replace("id integer", "id bigint"));
+		var outcome = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state")).generate(List.of(input), output);
+		assertEquals(new SchemaGenerator.Outcome(false, 1, 1, 0), outcome);
+	}
+	
+	@Test
+	void regenerateChangedConfig() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}""");
+		var output = directory.resolve("avro");
+		new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state")).generate(List.of(input), output);
+		var config = Config.builder().setNamespace("com.example").build();
+		var outcome = new SchemaGenerator(config, "1", directory.resolve("state")).generate(List.of(input), output);
+		assertEquals(new SchemaGenerator.Outcome(false, 1, 0, 0), outcome);
+	}
+	
+	@Test
+	void regenerateMissingFile() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}
+				
+				Table Order {
+					id integer
+				}""");
+		var output = directory.resolve("avro");
+		var generator = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state"));
+		generator.generate(List.of(input), output);
+		Files.delete(output.resolve("Order.avsc"));
+		assertEquals(new SchemaGenerator.Outcome(false, 1, 1, 0), generator.generate(List.of(input), output));
+		assertTrue(Files.exists(output.resolve("Order.avsc")));
+	}
+	
+	@Test
+	void deleteStale() throws IOException {
+		var input = Files.writeString(directory.resolve("model.dbml"), """
+				Table User {
+					name varchar
+				}
+				
+				Table Order {
+					id integer
+				}""");
+		var output = directory.resolve("avro");
+		var generator = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state"));
+		generator.generate(List.of(input), output);
+		Files.writeString(output.resolve("Other.avsc"), "{}");
+		Files.writeString(input, """
+				Table User {
+					name varchar
+				}""");
+		assertEquals(new SchemaGenerator.Outcome(false, 0, 1, 1), generator.generate(List.of(input), output));
+		assertFalse(Files.exists(output.resolve("Order.avsc")));
+		assertTrue(Files.exists(output.resolve("Other.avsc")));
+		assertEquals(List.of("User.avsc"), Files.readAllLines(output.resolve(SchemaGenerator.MANIFEST)));
+	}
+	
+	@Test
+	void failDuplicate() throws IOException {
+		var user = Files.writeString(directory.resolve("user.dbml"), """
+				Table User {
+					name varchar
+				}""");
+		var other = Files.writeString(directory.resolve("other.dbml"), """
+				Table Order {
+					id integer
+				}
+				
+				Table User {
+					id integer
+				}""");
+		var output = directory.resolve("avro");
+		var generator = new SchemaGenerator(Config.builder().build(), "1", directory.resolve("state"));
+		var e = assertThrows(IllegalStateException.class, () -> generator.generate(List.of(user, other), output));
+		assertTrue(e.getMessage().startsWith("Duplicate schema User"));
+		assertFalse(Files.exists(output));
+		assertFalse(Files.exists(directory.resolve("state")));
+	}
+}
@@ -0,0 +1,192 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.EnumValue;
+import com.wn.dbml.model.Table;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Translates DBML to Apache Avro {@link Schema} objects, without a JSON round-trip.
+ * Requires the optional dependency {@code org.apache.avro:avro}.
+ * <p>
+ * All schemas of a translation share the same enum schemas, so each enum is defined only once per record.
+ */
+public class AvroSchemaTranslator {
+	private final Config config;
+	private final NameValidator nameValidator;
+	private final NamespaceValidator namespaceValidator;
+	private final TypeMapper typeMapper;
+	
+	/**
+	 * Default constructor.
+	 *
+	 * @param config Config
+	 */
+	public AvroSchemaTranslator(Config config) {
+		this(config, new TypeMapper(config));
+	}
+	
+	/**
+	 * Constructor sharing a type mapper, and thereby its memoized mappings, with other translators.
+	 *
+	 * @param config     Config
+	 * @param typeMapper a type mapper for the same config
+	 */
+	public AvroSchemaTranslator(Config config, TypeMapper typeMapper) {
+		this.config = config;
+		this.nameValidator = new NameValidator();
+		this.namespaceValidator = new NamespaceValidator(nameValidator);
+		this.typeMapper = typeMapper;
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas.
+	 * Tables are returned first, followed by the enums.
+	 *
+	 * @param dbml a DBML string
+	 * @return the schema list
+	 */
+	public List<Schema> translate(String dbml) {
+		return translate(ParsedDbml.of(DbmlParser.parse(dbml)));
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas.
+	 * Tables are returned first, followed by the enums.
+	 *
+	 * @param dbml a DBML reader
+	 * @return the schema list
+	 */
+	public List<Schema> translate(Reader dbml) {
+		return translate(ParsedDbml.of(DbmlParser.parse(dbml)));
+	}
+	
+	/**
+	 * Translates a parsed model, so that it can be shared with a {@link DbmlAvroTranslator}.
+	 */
+	List<Schema> translate(ParsedDbml dbml) {
+		var violations = new Violations(ValidationMode.FAIL_FAST);
+		var namespace = config.namespace();
+		if (namespace != null && !namespaceValidator.isValid(namespace)) {
+			violations.add("Invalid namespace: " + namespace);
+		}
+		var namedTypes = dbml.namedTypes();
+		var enumSchemas = new IdentityHashMap<Enum, Schema>();
+		var enums = new ArrayList<Schema>();
+		for (var schemaEnums : dbml.enums().values()) {
+			for (var anEnum : schemaEnums) {
+				var enumSchema = translate(anEnum, violations.forContext(anEnum.getName()));
+				enumSchemas.put(anEnum, enumSchema);
+				enums.add(enumSchema);
+			}
+		}
+		var schemas = new ArrayList<Schema>();
+		for (var table : dbml.tables()) {
+			schemas.add(translate(table, namedTypes, enumSchemas, violations.forContext(table.getName())));
+		}
+		schemas.addAll(enums);
+		return Collections.unmodifiableList(schemas);
+	}
+	
+	private Schema translate(Table table, NamedTypes namedTypes, Map<Enum, Schema> enumSchemas, Violations violations) {
+		validateName(table.getName(), violations);
+		var builder = SchemaBuilder.record(table.getName())
+				.namespace(config.namespace())
+				.doc(table.getNote());
+		if (table.getAlias() != null) {
+			builder.aliases(table.getAlias());
+		}
+		var fields = builder.fields();
+		for (var column : table.getColumns()) {
+			validateName(column.getName(), violations);
+			var type = getType(column, namedTypes, enumSchemas, violations);
+			if (!column.getSettings().containsKey(ColumnSetting.NOT_NULL)) {
+				type = Schema.createUnion(type, Schema.create(Schema.Type.NULL));
+			}
+			fields.name(column.getName()).doc(column.getNote()).type(type).noDefault();
+		}
+		return fields.endRecord();
+	}
+	
+	private Schema getType(Column column, NamedTypes namedTypes, Map<Enum, Schema> enumSchemas, Violations violations) {
+		var anEnum = namedTypes.resolve(column.getType());
+		if (anEnum != null) {
+			return enumSchemas.get(anEnum);
+		}
+		try {
+			return toSchema(typeMapper.resolve(column.getType()));
+		} catch (IllegalArgumentException e) {
+			violations.add(column.getName(), e);
+			return Schema.create(Schema.Type.NULL);
+		}
+	}
+	
+	private Schema toSchema(TypeMapper.AvroType avroType) {
+		var logicalType = avroType.logicalType();
+		if (avroType.type().equals("fixed")) {
+			return toFixedSchema(avroType);
+		}
+		var schema = Schema.create(Schema.Type.valueOf(avroType.type().toUpperCase(Locale.ROOT)));
+		if (logicalType == null) {
+			return schema;
+		}
+		return switch (logicalType) {
+			case "decimal" -> LogicalTypes.decimal(avroType.attributes().get("precision"), avroType.attributes().get("scale")).addToSchema(schema);
+			case "uuid" -> LogicalTypes.uuid().addToSchema(schema);
+			case "date" -> LogicalTypes.date().addToSchema(schema);
+			case "time-millis" -> LogicalTypes.timeMillis().addToSchema(schema);
+			case "time-micros" -> LogicalTypes.timeMicros().addToSchema(schema);
+			case "timestamp-millis" -> LogicalTypes.timestampMillis().addToSchema(schema);
+			case "timestamp-micros" -> LogicalTypes.timestampMicros().addToSchema(schema);
+			case "local-timestamp-millis" -> LogicalTypes.localTimestampMillis().addToSchema(schema);
+			case "local-timestamp-micros" -> LogicalTypes.localTimestampMicros().addToSchema(schema);
+			default -> throw new IllegalStateException("Unknown logical type: " + logicalType);
+		};
+	}
+	
+	/**
+	 * Creates a fixed schema, named like the fixed types of {@link DbmlAvroTranslator}, so that equal types share a name.
+	 */
+	private Schema toFixedSchema(TypeMapper.AvroType avroType) {
+		var logicalType = avroType.logicalType();
+		var attributes = avroType.attributes();
+		var schema = Schema.createFixed(avroType.name(), null, config.namespace(), attributes.get("size"));
+		if (logicalType == null) {
+			return schema;
+		}
+		if (logicalType.equals("decimal")) {
+			return LogicalTypes.decimal(attributes.get("precision"), attributes.get("scale")).addToSchema(schema);
+		}
+		schema.addProp(LogicalType.LOGICAL_TYPE_PROP, logicalType);
+		return schema;
+	}
+	
+	private Schema translate(Enum anEnum, Violations violations) {
+		validateName(anEnum.getName(), violations);
+		var symbols = anEnum.getValues().stream().map(EnumValue::getName).toList();
+		symbols.forEach(symbol -> validateName(symbol, violations));
+		return SchemaBuilder.enumeration(anEnum.getName())
+				.namespace(config.namespace())
+				.symbols(symbols.toArray(String[]::new));
+	}
+	
+	private void validateName(String name, Violations violations) {
+		if (!nameValidator.isValid(name)) {
+			violations.add("Invalid name: " + name);
+		}
+	}
+}
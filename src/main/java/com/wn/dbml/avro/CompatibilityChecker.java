@@ -0,0 +1,353 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.EnumValue;
+import com.wn.dbml.model.Table;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Checks the compatibility of the Avro schemas translated from two versions of a DBML model,
+ * following the schema resolution rules of the Avro specification.
+ * A new schema is backward compatible if it can read data written with the old schema,
+ * and forward compatible if the old schema can read data written with the new schema.
+ * <p>
+ * Tables are matched by name and alias, enums and columns by name.
+ * Only tables and enums whose definitions changed are examined.
+ * As the translated schemas have no default values, added and removed columns break compatibility in one direction.
+ * Logical types are ignored by the schema resolution, so a changed logical type or attribute, e.g. the precision
+ * of a decimal, is compatible if the underlying types resolve, but readers interpret the values differently.
+ * It is reported as a {@link ChangeKind#LOGICAL_TYPE_CHANGED} change, which should be reviewed nonetheless.
+ */
+public class CompatibilityChecker {
+	private final TypeMapper typeMapper;
+	private final ContentHasher contentHasher;
+	
+	/**
+	 * Default constructor.
+	 *
+	 * @param config Config
+	 */
+	public CompatibilityChecker(Config config) {
+		this(config, new TypeMapper(config));
+	}
+	
+	/**
+	 * Constructor sharing a type mapper, and thereby its memoized mappings, with other translators.
+	 *
+	 * @param config     Config
+	 * @param typeMapper a type mapper for the same config
+	 */
+	public CompatibilityChecker(Config config, TypeMapper typeMapper) {
+		this.typeMapper = typeMapper;
+		this.contentHasher = new ContentHasher(config);
+	}
+	
+	/**
+	 * Checks the compatibility of two DBML versions.
+	 *
+	 * @param oldDbml the old DBML string
+	 * @param newDbml the new DBML string
+	 * @return the report
+	 */
+	public Report check(String oldDbml, String newDbml) {
+		return check(DbmlParser.parse(oldDbml), DbmlParser.parse(newDbml));
+	}
+	
+	/**
+	 * Checks the compatibility of two DBML versions.
+	 *
+	 * @param oldDbml the old DBML reader
+	 * @param newDbml the new DBML reader
+	 * @return the report
+	 */
+	public Report check(Reader oldDbml, Reader newDbml) {
+		return check(DbmlParser.parse(oldDbml), DbmlParser.parse(newDbml));
+	}
+	
+	private Report check(Database oldDatabase, Database newDatabase) {
+		var oldTypes = NamedTypes.of(oldDatabase);
+		var newTypes = NamedTypes.of(newDatabase);
+		var verdicts = new ArrayList<Verdict>();
+		checkTables(oldDatabase, oldTypes, newDatabase, newTypes, verdicts);
+		checkEnums(oldDatabase, newDatabase, verdicts);
+		return new Report(Collections.unmodifiableList(verdicts));
+	}
+	
+	private void checkTables(Database oldDatabase, NamedTypes oldTypes, Database newDatabase, NamedTypes newTypes, List<Verdict> verdicts) {
+		var oldByName = new LinkedHashMap<String, Table>();
+		var oldByAlias = new HashMap<String, Table>();
+		for (var schema : oldDatabase.getSchemas()) {
+			for (var table : schema.getTables()) {
+				oldByName.put(table.getName(), table);
+				if (table.getAlias() != null) {
+					oldByAlias.put(table.getAlias(), table);
+				}
+			}
+		}
+		var matched = Collections.newSetFromMap(new IdentityHashMap<Table, Boolean>());
+		for (var schema : newDatabase.getSchemas()) {
+			for (var newTable : schema.getTables()) {
+				var oldTable = oldByName.get(newTable.getName());
+				if (oldTable == null) oldTable = oldByAlias.get(newTable.getName());
+				if (oldTable == null && newTable.getAlias() != null) oldTable = oldByName.get(newTable.getAlias());
+				if (oldTable == null || !matched.add(oldTable)) {
+					verdicts.add(new Verdict(newTable.getName(), Status.ADDED, List.of()));
+				} else if (contentHasher.hash(oldTable, oldTypes).equals(contentHasher.hash(newTable, newTypes))) {
+					verdicts.add(new Verdict(newTable.getName(), Status.UNCHANGED, List.of()));
+				} else {
+					verdicts.add(new Verdict(newTable.getName(), Status.CHANGED, compare(oldTable, oldTypes, newTable, newTypes)));
+				}
+			}
+		}
+		oldByName.values().stream()
+				.filter(table -> !matched.contains(table))
+				.forEach(table -> verdicts.add(new Verdict(table.getName(), Status.REMOVED, List.of())));
+	}
+	
+	private void checkEnums(Database oldDatabase, Database newDatabase, List<Verdict> verdicts) {
+		var oldByName = new LinkedHashMap<String, Enum>();
+		oldDatabase.getSchemas().forEach(schema -> schema.getEnums().forEach(anEnum -> oldByName.put(anEnum.getName(), anEnum)));
+		for (var schema : newDatabase.getSchemas()) {
+			for (var newEnum : schema.getEnums()) {
+				var oldEnum = oldByName.remove(newEnum.getName());
+				if (oldEnum == null) {
+					verdicts.add(new Verdict(newEnum.getName(), Status.ADDED, List.of()));
+				} else if (contentHasher.hash(oldEnum).equals(contentHasher.hash(newEnum))) {
+					verdicts.add(new Verdict(newEnum.getName(), Status.UNCHANGED, List.of()));
+				} else {
+					var changes = new ArrayList<Change>();
+					compareSymbols(null, oldEnum, newEnum, changes);
+					verdicts.add(new Verdict(newEnum.getName(), Status.CHANGED, List.copyOf(changes)));
+				}
+			}
+		}
+		oldByName.values().forEach(anEnum -> verdicts.add(new Verdict(anEnum.getName(), Status.REMOVED, List.of())));
+	}
+	
+	private List<Change> compare(Table oldTable, NamedTypes oldTypes, Table newTable, NamedTypes newTypes) {
+		var changes = new ArrayList<Change>();
+		if (!oldTable.getName().equals(newTable.getName())) {
+			changes.add(new Change(null, ChangeKind.RECORD_RENAMED, "%s -> %s".formatted(oldTable.getName(), newTable.getName()),
+					oldTable.getName().equals(newTable.getAlias()), newTable.getName().equals(oldTable.getAlias())));
+		}
+		var oldColumns = new LinkedHashMap<String, Column>();
+		oldTable.getColumns().forEach(column -> oldColumns.put(column.getName(), column));
+		for (var newColumn : newTable.getColumns()) {
+			var oldColumn = oldColumns.remove(newColumn.getName());
+			if (oldColumn == null) {
+				var nullable = isNullable(newColumn);
+				changes.add(new Change(newColumn.getName(), nullable ? ChangeKind.NULLABLE_FIELD_ADDED : ChangeKind.FIELD_ADDED,
+						newColumn.getType(), false, true));
+			} else {
+				compare(oldColumn, oldTypes, newColumn, newTypes, changes);
+			}
+		}
+		oldColumns.values().forEach(column -> changes.add(new Change(column.getName(), ChangeKind.FIELD_REMOVED, column.getType(), true, false)));
+		return List.copyOf(changes);
+	}
+	
+	private void compare(Column oldColumn, NamedTypes oldTypes, Column newColumn, NamedTypes newTypes, List<Change> changes) {
+		var name = newColumn.getName();
+		var oldNullable = isNullable(oldColumn);
+		var newNullable = isNullable(newColumn);
+		if (oldNullable != newNullable) {
+			changes.add(new Change(name, newNullable ? ChangeKind.FIELD_MADE_NULLABLE : ChangeKind.FIELD_MADE_NOT_NULL,
+					null, newNullable, oldNullable));
+		}
+		var oldEnum = oldTypes.resolve(oldColumn.getType());
+		var newEnum = newTypes.resolve(newColumn.getType());
+		if (oldEnum != null || newEnum != null) {
+			if (oldEnum == null || newEnum == null || !oldEnum.getName().equals(newEnum.getName())) {
+				changes.add(new Change(name, ChangeKind.TYPE_CHANGED, "%s -> %s".formatted(oldColumn.getType(), newColumn.getType()), false, false));
+			} else {
+				compareSymbols(name, oldEnum, newEnum, changes);
+			}
+			return;
+		}
+		var oldType = typeMapper.resolve(oldColumn.getType());
+		var newType = typeMapper.resolve(newColumn.getType());
+		if (oldType.equals(newType)) {
+			return;
+		}
+		var description = "%s -> %s".formatted(oldType.toJson(), newType.toJson());
+		var backward = canResolve(oldType, newType);
+		var forward = canResolve(newType, oldType);
+		ChangeKind kind;
+		if (!Objects.equals(oldType.logicalType(), newType.logicalType()) || !oldType.attributes().equals(newType.attributes())) {
+			kind = ChangeKind.LOGICAL_TYPE_CHANGED;
+		} else {
+			kind = backward || forward ? ChangeKind.TYPE_PROMOTED : ChangeKind.TYPE_CHANGED;
+		}
+		changes.add(new Change(name, kind, description, backward, forward));
+	}
+	
+	/**
+	 * Compares the symbols of an enum. A reader without the symbol of a written value fails, as there is no default symbol.
+	 */
+	private static void compareSymbols(String field, Enum oldEnum, Enum newEnum, List<Change> changes) {
+		var oldSymbols = getSymbols(oldEnum);
+		var newSymbols = getSymbols(newEnum);
+		var added = new LinkedHashSet<>(newSymbols);
+		added.removeAll(oldSymbols);
+		var removed = new LinkedHashSet<>(oldSymbols);
+		removed.removeAll(newSymbols);
+		if (!added.isEmpty()) {
+			changes.add(new Change(field, ChangeKind.SYMBOLS_ADDED, String.join(", ", added), true, false));
+		}
+		if (!removed.isEmpty()) {
+			changes.add(new Change(field, ChangeKind.SYMBOLS_REMOVED, String.join(", ", removed), false, true));
+		}
+	}
+	
+	private static Set<String> getSymbols(Enum anEnum) {
+		var symbols = new LinkedHashSet<String>();
+		anEnum.getValues().stream().map(EnumValue::getName).forEach(symbols::add);
+		return symbols;
+	}
+	
+	/**
+	 * Returns whether a value written as the writer type can be read as the reader type, ignoring logical types.
+	 * Fixed types resolve only if their names and sizes match.
+	 */
+	private static boolean canResolve(TypeMapper.AvroType writerType, TypeMapper.AvroType readerType) {
+		if (writerType.type().equals("fixed") || readerType.type().equals("fixed")) {
+			return Objects.equals(writerType.name(), readerType.name()) && writerType.attributes().get("size").equals(readerType.attributes().get("size"));
+		}
+		return canPromote(writerType.type(), readerType.type());
+	}
+	
+	/**
+	 * Returns whether a value written as the writer type can be read as the reader type.
+	 */
+	private static boolean canPromote(String writerType, String readerType) {
+		if (writerType.equals(readerType)) return true;
+		return switch (writerType) {
+			case "int" -> readerType.equals("long") || readerType.equals("float") || readerType.equals("double");
+			case "long" -> readerType.equals("float") || readerType.equals("double");
+			case "float" -> readerType.equals("double");
+			case "string" -> readerType.equals("bytes");
+			case "bytes" -> readerType.equals("string");
+			default -> false;
+		};
+	}
+	
+	private static boolean isNullable(Column column) {
+		return !column.getSettings().containsKey(ColumnSetting.NOT_NULL);
+	}
+	
+	/**
+	 * The status of a table or enum in the new version.
+	 */
+	public enum Status {
+		ADDED, REMOVED, UNCHANGED, CHANGED
+	}
+	
+	/**
+	 * The kind of change.
+	 */
+	public enum ChangeKind {
+		RECORD_RENAMED,
+		FIELD_ADDED,
+		NULLABLE_FIELD_ADDED,
+		FIELD_REMOVED,
+		FIELD_MADE_NULLABLE,
+		FIELD_MADE_NOT_NULL,
+		TYPE_PROMOTED,
+		TYPE_CHANGED,
+		/**
+		 * The logical type or its attributes changed, which is compatible if the underlying types resolve.
+		 */
+		LOGICAL_TYPE_CHANGED,
+		SYMBOLS_ADDED,
+		SYMBOLS_REMOVED
+	}
+	
+	/**
+	 * A change between the old and new schema.
+	 *
+	 * @param field       The name of the changed field, or null for changes of the schema itself.
+	 * @param kind        The kind of change.
+	 * @param description The details of the change, e.g. the old and new type, or null.
+	 * @param backward    Whether the new schema can read data written with the old schema despite the change.
+	 * @param forward     Whether the old schema can read data written with the new schema despite the change.
+	 */
+	public record Change(
+			String field,
+			ChangeKind kind,
+			String description,
+			boolean backward,
+			boolean forward
+	) {
+	}
+	
+	/**
+	 * The compatibility verdict of a table or enum.
+	 *
+	 * @param name    The name of the table or enum in the new version, or in the old version if it was removed.
+	 * @param status  The status in the new version.
+	 * @param changes The changes of a changed table or enum.
+	 */
+	public record Verdict(
+			String name,
+			Status status,
+			List<Change> changes
+	) {
+		/**
+		 * Returns whether the new schema can read data written with the old schema.
+		 */
+		public boolean isBackwardCompatible() {
+			return changes.stream().allMatch(Change::backward);
+		}
+		
+		/**
+		 * Returns whether the old schema can read data written with the new schema.
+		 */
+		public boolean isForwardCompatible() {
+			return changes.stream().allMatch(Change::forward);
+		}
+	}
+	
+	/**
+	 * The compatibility verdicts of all tables followed by all enums.
+	 */
+	public record Report(
+			List<Verdict> verdicts
+	) {
+		/**
+		 * Returns the verdict of a table or enum.
+		 *
+		 * @return the verdict or null, if there is none
+		 */
+		public Verdict get(String name) {
+			return verdicts.stream().filter(verdict -> verdict.name().equals(name)).findFirst().orElse(null);
+		}
+		
+		/**
+		 * Returns whether all new schemas can read data written with the old schemas.
+		 */
+		public boolean isBackwardCompatible() {
+			return verdicts.stream().allMatch(Verdict::isBackwardCompatible);
+		}
+		
+		/**
+		 * Returns whether all old schemas can read data written with the new schemas.
+		 */
+		public boolean isForwardCompatible() {
+			return verdicts.stream().allMatch(Verdict::isForwardCompatible);
+		}
+	}
+}
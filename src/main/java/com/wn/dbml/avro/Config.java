@@ -12,22 +12,32 @@ import static java.util.Map.entry;
 /**
  * Configuration for the DBML-to-Avro-Translator.
  *
- * @param namespace    The namespace of the generated Avro schemas
- * @param typeMappings Type mappings from Avro types to sets of DBML types.
- *                     A DBML column type matches an Avro type if it starts with any of the defined DBML types.
- * @param defaultScale The scale to be used for decimals without an explicitly specified scale.
+ * @param namespace       The namespace of the generated Avro schemas
+ * @param typeMappings    Type mappings from Avro types to sets of DBML types.
+ *                        A DBML column type matches an Avro type if it starts with any of the defined DBML types.
+ * @param defaultScale    The scale to be used for decimals without an explicitly specified scale.
+ * @param encodingProfile The encoding profile, which refines the mapped Avro types.
  * @see #builder()
  */
 public record Config(
 		String namespace,
 		Map<String, Set<String>> typeMappings,
-		int defaultScale) {
-	public Config(String namespace, Map<String, Set<String>> typeMappings, int defaultScale) {
+		int defaultScale,
+		EncodingProfile encodingProfile) {
+	public Config(String namespace, Map<String, Set<String>> typeMappings, int defaultScale, EncodingProfile encodingProfile) {
 		this.namespace = namespace;
 		this.typeMappings = typeMappings.entrySet().stream()
 				.map(e -> entry(normalize(e.getKey()), e.getValue().stream().map(this::normalize).collect(Collectors.toSet())))
 				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 		this.defaultScale = defaultScale;
+		this.encodingProfile = encodingProfile;
+	}
+	
+	/**
+	 * Creates a config with the standard encoding profile.
+	 */
+	public Config(String namespace, Map<String, Set<String>> typeMappings, int defaultScale) {
+		this(namespace, typeMappings, defaultScale, EncodingProfile.STANDARD);
 	}
 	
 	/**
@@ -70,11 +80,16 @@ public record Config(
 		 * Avro's default scale is 0.
 		 */
 		public static final int DEFAULT_SCALE = 0;
+		/**
+		 * The default encoding profile uses the mapped Avro types as they are.
+		 */
+		public static final EncodingProfile DEFAULT_ENCODING_PROFILE = EncodingProfile.STANDARD;
 		
 		private String namespace = DEFAULT_NAMESPACE;
 		private Map<String, Set<String>> typeMappings = DEFAULT_TYPE_MAPPINGS;
 		private boolean mutableMappings;
 		private int defaultScale = DEFAULT_SCALE;
+		private EncodingProfile encodingProfile = DEFAULT_ENCODING_PROFILE;
 		
 		/**
 		 * Set the namespace for all translated schemas.
@@ -123,8 +138,19 @@ public record Config(
 			return this;
 		}
 		
+		/**
+		 * Set the encoding profile.
+		 *
+		 * @see #DEFAULT_ENCODING_PROFILE
+		 */
+		public Builder setEncodingProfile(EncodingProfile encodingProfile) {
+			if (encodingProfile == null) throw new IllegalArgumentException("Encoding profile must not be null");
+			this.encodingProfile = encodingProfile;
+			return this;
+		}
+		
 		public Config build() {
-			return new Config(namespace, typeMappings, defaultScale);
+			return new Config(namespace, typeMappings, defaultScale, encodingProfile);
 		}
 	}
 }
@@ -0,0 +1,450 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes Avro object container files.
+ * Records are encoded on the calling thread and passed on in batches to a background thread,
+ * which compresses and writes the blocks, so that compression overlaps with encoding.
+ * Requires the optional dependency {@code org.apache.avro:avro}.
+ */
+public class ContainerFileWriter implements Closeable {
+	/**
+	 * The libraries required by the codecs, by codec name.
+	 */
+	private static final Map<String, String> CODEC_LIBRARIES = Map.of(
+			DataFileConstants.SNAPPY_CODEC, "org.xerial.snappy.Snappy",
+			DataFileConstants.ZSTANDARD_CODEC, "com.github.luben.zstd.Zstd",
+			DataFileConstants.XZ_CODEC, "org.tukaani.xz.XZOutputStream",
+			DataFileConstants.BZIP2_CODEC, "org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream"
+	);
+	private static final Batch END = new Batch(0);
+	private final Schema schema;
+	private final DataFileWriter<Object> fileWriter;
+	private final GenericDatumWriter<Object> datumWriter;
+	private final int batchSize;
+	private final BlockingQueue<Batch> filled;
+	private final BlockingQueue<Batch> empty;
+	private final BatchStream stream = new BatchStream();
+	private final BinaryEncoder encoder;
+	private final Thread thread;
+	private volatile Throwable failure;
+	private boolean closed;
+	
+	private ContainerFileWriter(Builder builder, Schema schema, OutputStream out) throws IOException {
+		this.schema = schema;
+		this.fileWriter = new DataFileWriter<>(new GenericDatumWriter<>(schema))
+				.setCodec(builder.getCodecFactory())
+				.setSyncInterval(builder.syncInterval);
+		this.fileWriter.create(schema, new BufferedOutputStream(out, builder.bufferSize));
+		this.datumWriter = new GenericDatumWriter<>(schema);
+		this.batchSize = builder.syncInterval;
+		// room for all batches and the end marker, so that handing over never blocks on a failed background thread
+		this.filled = new ArrayBlockingQueue<>(builder.queueCapacity + 2);
+		this.empty = new ArrayBlockingQueue<>(builder.queueCapacity + 1);
+		for (int i = 0; i < builder.queueCapacity; i++) {
+			empty.add(new Batch(batchSize));
+		}
+		this.stream.batch = new Batch(batchSize);
+		this.encoder = EncoderFactory.get().directBinaryEncoder(stream, null);
+		this.thread = new Thread(this::writeBatches, "dbml-avro-container-writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	/**
+	 * Creates a builder.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * Returns the schema of the records.
+	 */
+	public Schema getSchema() {
+		return schema;
+	}
+	
+	/**
+	 * Appends a generic datum, e.g. a {@link org.apache.avro.generic.GenericRecord}.
+	 */
+	public void append(Object datum) throws IOException {
+		checkOpen();
+		try {
+			datumWriter.write(datum, encoder);
+		} catch (IOException | RuntimeException e) {
+			stream.batch.discardPartialRecord();
+			throw e;
+		}
+		recordEncoded();
+	}
+	
+	/**
+	 * Appends a record encoded by the record encoder, e.g. the {@code encode} method of a record
+	 * generated by {@link JavaCodeGenerator}.
+	 */
+	public void append(RecordEncoder recordEncoder) throws IOException {
+		checkOpen();
+		try {
+			recordEncoder.encode(encoder);
+		} catch (IOException | RuntimeException e) {
+			stream.batch.discardPartialRecord();
+			throw e;
+		}
+		recordEncoded();
+	}
+	
+	/**
+	 * Appends the remaining rows of the result set.
+	 *
+	 * @param exporter the exporter of the table with the schema of this writer
+	 * @return the number of records appended
+	 */
+	public long append(ResultSetExporter exporter, ResultSet resultSet) throws SQLException, IOException {
+		checkOpen();
+		if (!exporter.getSchema().equals(schema)) {
+			throw new IllegalArgumentException("Exporter of schema %s does not match schema %s".formatted(exporter.getSchema().getFullName(), schema.getFullName()));
+		}
+		try {
+			return exporter.export(resultSet, encoder, this::recordEncoded);
+		} catch (SQLException | IOException | RuntimeException e) {
+			stream.batch.discardPartialRecord();
+			throw e;
+		}
+	}
+	
+	private void recordEncoded() throws IOException {
+		var batch = stream.batch;
+		batch.endRecord();
+		if (batch.size >= batchSize) {
+			handOver(batch);
+			stream.batch = take(empty);
+		}
+	}
+	
+	/**
+	 * Writes the appended records and closes the file.
+	 * The file is closed by the background thread once it has written the last block,
+	 * or, if closing is interrupted, once it has stopped.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		if (stream.batch.records > 0) {
+			handOver(stream.batch);
+		}
+		handOver(END);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			thread.interrupt();
+			throw new InterruptedIOException("Interrupted while closing the container file");
+		}
+		checkFailure();
+	}
+	
+	private void writeBatches() {
+		try {
+			while (true) {
+				var batch = filled.take();
+				if (batch == END) break;
+				int start = 0;
+				for (int i = 0; i < batch.records; i++) {
+					var end = batch.ends[i];
+					fileWriter.appendEncoded(ByteBuffer.wrap(batch.bytes, start, end - start));
+					start = end;
+				}
+				batch.clear();
+				empty.put(batch);
+			}
+		} catch (Throwable t) {
+			failure = t;
+			// unblock the appending thread
+			empty.offer(new Batch(batchSize));
+		} finally {
+			closeFile();
+		}
+	}
+	
+	/**
+	 * Closes the file on the background thread, so that it is never closed while a block is being written.
+	 */
+	private void closeFile() {
+		try {
+			fileWriter.close();
+		} catch (Throwable t) {
+			var previous = failure;
+			if (previous == null) {
+				failure = t;
+			} else {
+				previous.addSuppressed(t);
+			}
+		}
+	}
+	
+	private void handOver(Batch batch) throws IOException {
+		checkFailure();
+		try {
+			filled.put(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while appending to the container file");
+		}
+	}
+	
+	private Batch take(BlockingQueue<Batch> queue) throws IOException {
+		try {
+			var batch = queue.take();
+			checkFailure();
+			return batch;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while appending to the container file");
+		}
+	}
+	
+	private void checkOpen() throws IOException {
+		if (closed) throw new IOException("Container file is closed");
+		checkFailure();
+	}
+	
+	private void checkFailure() throws IOException {
+		var t = failure;
+		if (t != null) {
+			if (t instanceof IOException e) throw new IOException(e.getMessage(), e);
+			throw new IOException("Writing the container file failed", t);
+		}
+	}
+	
+	/**
+	 * Returns whether a codec can be used, i.e. it is known and its library is on the class path.
+	 *
+	 * @param codec the codec name, e.g. null, deflate, snappy or zstandard
+	 */
+	public static boolean isAvailable(String codec) {
+		try {
+			CodecFactory.fromString(codec);
+		} catch (RuntimeException e) {
+			return false;
+		}
+		var library = CODEC_LIBRARIES.get(codec);
+		if (library == null) return true;
+		try {
+			Class.forName(library, false, ContainerFileWriter.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Encodes a single record.
+	 */
+	@FunctionalInterface
+	public interface RecordEncoder {
+		void encode(Encoder out) throws IOException;
+	}
+	
+	/**
+	 * Encoded records, stored back to back.
+	 */
+	private static class Batch {
+		private byte[] bytes;
+		private int size;
+		private int[] ends = new int[64];
+		private int records;
+		
+		Batch(int capacity) {
+			this.bytes = new byte[capacity + capacity / 4];
+		}
+		
+		void write(byte[] b, int off, int len) {
+			if (size + len > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + len));
+			}
+			System.arraycopy(b, off, bytes, size, len);
+			size += len;
+		}
+		
+		void endRecord() {
+			if (records == ends.length) {
+				ends = Arrays.copyOf(ends, records * 2);
+			}
+			ends[records++] = size;
+		}
+		
+		void clear() {
+			size = 0;
+			records = 0;
+		}
+		
+		/**
+		 * Discards the bytes of a record that failed to encode.
+		 */
+		void discardPartialRecord() {
+			size = records == 0 ? 0 : ends[records - 1];
+		}
+	}
+	
+	/**
+	 * Writes to the current batch.
+	 */
+	private static class BatchStream extends OutputStream {
+		private Batch batch;
+		private final byte[] single = new byte[1];
+		
+		@Override
+		public void write(int b) {
+			single[0] = (byte) b;
+			batch.write(single, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {
+			batch.write(b, off, len);
+		}
+	}
+	
+	public static class Builder {
+		/**
+		 * The default sync interval in bytes.
+		 */
+		public static final int DEFAULT_SYNC_INTERVAL = DataFileConstants.DEFAULT_SYNC_INTERVAL;
+		/**
+		 * The default codec.
+		 */
+		public static final String DEFAULT_CODEC = DataFileConstants.NULL_CODEC;
+		/**
+		 * The default size of the output buffer in bytes.
+		 */
+		public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+		/**
+		 * The default number of batches that can be encoded ahead of the background thread.
+		 */
+		public static final int DEFAULT_QUEUE_CAPACITY = 4;
+		private int syncInterval = DEFAULT_SYNC_INTERVAL;
+		private String codec = DEFAULT_CODEC;
+		private Integer compressionLevel;
+		private int bufferSize = DEFAULT_BUFFER_SIZE;
+		private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+		
+		private Builder() {
+		}
+		
+		/**
+		 * Sets the sync interval, i.e. the approximate number of uncompressed bytes per block.
+		 * Records are also handed to the background thread in batches of this size.
+		 */
+		public Builder setSyncInterval(int syncInterval) {
+			if (syncInterval < 32 || syncInterval > (1 << 30)) {
+				throw new IllegalArgumentException("Sync interval must be between 32 bytes and 1 GiB: " + syncInterval);
+			}
+			this.syncInterval = syncInterval;
+			return this;
+		}
+		
+		/**
+		 * Sets the codec compressing the blocks.
+		 *
+		 * @param codec null, deflate, or another available codec like snappy or zstandard
+		 * @see #isAvailable(String)
+		 */
+		public Builder setCodec(String codec) {
+			if (!isAvailable(codec)) {
+				throw new IllegalArgumentException("Unavailable codec: " + codec);
+			}
+			this.codec = codec;
+			return this;
+		}
+		
+		/**
+		 * Sets the compression level of the deflate, zstandard and xz codecs, or null for their default level.
+		 */
+		public Builder setCompressionLevel(Integer compressionLevel) {
+			this.compressionLevel = compressionLevel;
+			return this;
+		}
+		
+		/**
+		 * Sets the size of the buffer in front of the output stream.
+		 */
+		public Builder setBufferSize(int bufferSize) {
+			if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be a positive integer");
+			this.bufferSize = bufferSize;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of batches that can be encoded ahead of the background thread.
+		 */
+		public Builder setQueueCapacity(int queueCapacity) {
+			if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be a positive integer");
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+		
+		private CodecFactory getCodecFactory() {
+			if (compressionLevel != null) {
+				switch (codec) {
+					case DataFileConstants.DEFLATE_CODEC:
+						return CodecFactory.deflateCodec(compressionLevel);
+					case DataFileConstants.ZSTANDARD_CODEC:
+						return CodecFactory.zstandardCodec(compressionLevel);
+					case DataFileConstants.XZ_CODEC:
+						return CodecFactory.xzCodec(compressionLevel);
+				}
+			}
+			return CodecFactory.fromString(codec);
+		}
+		
+		/**
+		 * Opens a container file for records of the schema.
+		 * The output stream is closed with the writer, or if opening the writer fails.
+		 */
+		public ContainerFileWriter open(Schema schema, OutputStream out) throws IOException {
+			try {
+				return new ContainerFileWriter(this, schema, out);
+			} catch (IOException | RuntimeException e) {
+				try {
+					out.close();
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+				throw e;
+			}
+		}
+		
+		/**
+		 * Opens the container file {@code <name>.avro} in the directory for records of a translated table.
+		 */
+		public ContainerFileWriter open(DbmlAvroTranslator.Result result, Path directory) throws IOException {
+			var schema = new Schema.Parser().parse(result.schema());
+			return open(schema, Files.newOutputStream(directory.resolve(result.name() + ".avro")));
+		}
+	}
+}
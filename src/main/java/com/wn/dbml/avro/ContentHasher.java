@@ -0,0 +1,99 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Table;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Computes stable content hashes of table and enum definitions under a config.
+ * Two definitions have the same hash if and only if they translate to the same schema.
+ */
+class ContentHasher {
+	/**
+	 * The version of the rendered schema format, which invalidates the schemas cached by previous versions.
+	 * Must be incremented whenever the rendering of a schema changes.
+	 */
+	static final int FORMAT_VERSION = 2;
+	private final String configDefinition;
+	
+	ContentHasher(Config config) {
+		var sb = new StringBuilder("format:");
+		appendValue(sb, String.valueOf(FORMAT_VERSION));
+		sb.append("\nconfig:");
+		appendValue(sb, config.namespace());
+		var typeMappings = new TreeMap<String, TreeSet<String>>();
+		config.typeMappings().forEach((avroType, dbmlTypes) -> typeMappings.put(avroType, new TreeSet<>(dbmlTypes)));
+		typeMappings.forEach((avroType, dbmlTypes) -> {
+			appendValue(sb, avroType);
+			dbmlTypes.forEach(dbmlType -> appendValue(sb, dbmlType));
+		});
+		appendValue(sb, String.valueOf(config.defaultScale()));
+		appendValue(sb, config.encodingProfile().name());
+		this.configDefinition = sb.toString();
+	}
+	
+	String hash(Table table, NamedTypes namedTypes) {
+		var sb = new StringBuilder(configDefinition).append("\ntable:");
+		appendValue(sb, table.getName());
+		appendValue(sb, table.getAlias());
+		appendValue(sb, table.getNote());
+		var referencedEnums = new TreeMap<String, Enum>();
+		for (var column : table.getColumns()) {
+			appendColumn(sb, column);
+			var anEnum = namedTypes.resolve(column.getType());
+			if (anEnum != null) {
+				referencedEnums.put(anEnum.getName(), anEnum);
+			}
+		}
+		referencedEnums.values().forEach(anEnum -> appendEnum(sb, anEnum));
+		return hash(sb);
+	}
+	
+	String hash(Enum anEnum) {
+		var sb = new StringBuilder(configDefinition);
+		appendEnum(sb, anEnum);
+		return hash(sb);
+	}
+	
+	private static void appendColumn(StringBuilder sb, Column column) {
+		sb.append("\ncolumn:");
+		appendValue(sb, column.getName());
+		appendValue(sb, column.getType());
+		appendValue(sb, column.getNote());
+		appendValue(sb, String.valueOf(column.getSettings().containsKey(ColumnSetting.NOT_NULL)));
+	}
+	
+	private static void appendEnum(StringBuilder sb, Enum anEnum) {
+		sb.append("\nenum:");
+		appendValue(sb, anEnum.getName());
+		anEnum.getValues().forEach(value -> appendValue(sb, value.getName()));
+	}
+	
+	/**
+	 * Appends a length-prefixed value, so that the boundaries between values are unambiguous.
+	 */
+	private static void appendValue(StringBuilder sb, String value) {
+		if (value == null) {
+			sb.append("-1:");
+		} else {
+			sb.append(value.length()).append(':').append(value);
+		}
+	}
+	
+	private static String hash(StringBuilder sb) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
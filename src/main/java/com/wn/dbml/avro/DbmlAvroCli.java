@@ -0,0 +1,332 @@
+package com.wn.dbml.avro;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Command line interface translating DBML files to Avro schema files in parallel.
+ */
+public class DbmlAvroCli {
+	private static final String USAGE = """
+			Usage: dbml-avro [options] <file|directory|glob>...
+			Translates DBML files to Avro schema files, one <name>.avsc per table and enum.
+			Directories are searched recursively for *.dbml files.
+			
+			Options:
+			  -o, --output <directory>                 output directory (default: current directory)
+			  -n, --namespace <namespace>              namespace of the schemas
+			  -m, --type-mapping <avro>=<dbml>[,...]   additional type mapping, may be repeated
+			  -s, --default-scale <scale>              scale of decimals without a scale (default: 0)
+			  -p, --profile <profile>                  encoding profile, standard or compact (default: standard)
+			  -t, --threads <threads>                  number of worker threads (default: number of processors)
+			  -j, --java-package <package>             also generate Java records with binary codecs in the package
+			                                           (requires org.apache.avro:avro)
+			  -h, --help                               print this help""";
+	/**
+	 * Files of at least this size are memory-mapped instead of read into a buffer.
+	 */
+	private static final long MAPPING_THRESHOLD = 1 << 20;
+	
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+	
+	/**
+	 * Runs the command line interface.
+	 *
+	 * @return the exit code
+	 */
+	public static int run(String[] args, PrintStream out, PrintStream err) {
+		Options options;
+		try {
+			options = Options.parse(args);
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		}
+		if (options.help()) {
+			out.println(USAGE);
+			return 0;
+		}
+		DbmlAvroCli cli;
+		try {
+			cli = new DbmlAvroCli(options, out, err);
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		}
+		try {
+			return cli.run();
+		} catch (IOException e) {
+			err.println("Error: " + e.getMessage());
+			return 1;
+		}
+	}
+	
+	private final Options options;
+	private final PrintStream out;
+	private final PrintStream err;
+	private final DbmlAvroTranslator translator;
+	private final AvroSchemaTranslator schemaTranslator;
+	private final JavaCodeGenerator codeGenerator;
+	/**
+	 * The input file of each written schema, by schema name, since all schemas are written to the same directory.
+	 */
+	private final Map<String, Path> schemaFiles = new ConcurrentHashMap<>();
+	
+	private DbmlAvroCli(Options options, PrintStream out, PrintStream err) {
+		this.options = options;
+		this.out = out;
+		this.err = err;
+		this.translator = new DbmlAvroTranslator(options.config());
+		this.schemaTranslator = options.javaPackage() == null ? null : new AvroSchemaTranslator(options.config());
+		this.codeGenerator = options.javaPackage() == null ? null : new JavaCodeGenerator(options.javaPackage());
+	}
+	
+	private int run() throws IOException {
+		var start = System.nanoTime();
+		var files = findFiles(options.inputs());
+		if (files.isEmpty()) {
+			err.println("No DBML files found");
+			return 1;
+		}
+		Files.createDirectories(options.output());
+		var executor = Executors.newFixedThreadPool(Math.min(options.threads(), files.size()));
+		try {
+			var futures = new ArrayList<Future<FileSummary>>(files.size());
+			for (var file : files) {
+				futures.add(executor.submit(() -> translate(file)));
+			}
+			int failed = 0;
+			int schemas = 0;
+			for (int i = 0; i < files.size(); i++) {
+				try {
+					var summary = futures.get(i).get();
+					schemas += summary.schemas();
+					out.printf("%s: %d schema(s), read %d ms, translated %d ms%n",
+							files.get(i), summary.schemas(), toMillis(summary.readNanos()), toMillis(summary.translateNanos()));
+				} catch (ExecutionException e) {
+					failed++;
+					err.printf("%s: %s%n", files.get(i), e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return 1;
+				}
+			}
+			out.printf("Total: %d file(s), %d schema(s), %d failed, %d ms%n",
+					files.size(), schemas, failed, toMillis(System.nanoTime() - start));
+			return failed == 0 ? 0 : 1;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private FileSummary translate(Path file) throws IOException {
+		var start = System.nanoTime();
+		var dbml = read(file);
+		var read = System.nanoTime();
+		var parsed = translator.parse(dbml);
+		var schemas = new AtomicInteger();
+		var output = SchemaOutput.ofDirectory(options.output());
+		translator.write(parsed, new SchemaOutput() {
+			@Override
+			public Appendable open(String name) throws IOException {
+				var previous = schemaFiles.putIfAbsent(name, file);
+				if (previous != null) {
+					throw new IOException("Duplicate schema %s, which is also translated from %s".formatted(name, previous));
+				}
+				return output.open(name);
+			}
+			
+			@Override
+			public void finish(String name, Appendable target) throws IOException {
+				output.finish(name, target);
+				schemas.incrementAndGet();
+			}
+			
+			@Override
+			public void abort(String name, Appendable target) throws IOException {
+				output.abort(name, target);
+			}
+		});
+		if (codeGenerator != null) {
+			for (var schema : schemaTranslator.translate(parsed)) {
+				var source = codeGenerator.generate(schema);
+				var sourceFile = options.output().resolve(source.path());
+				Files.createDirectories(sourceFile.getParent());
+				Files.writeString(sourceFile, source.source());
+			}
+		}
+		return new FileSummary(schemas.get(), read - start, System.nanoTime() - read);
+	}
+	
+	/**
+	 * Reads a UTF-8 file through its channel, memory-mapping large files.
+	 * Malformed input is reported regardless of the size of the file.
+	 */
+	static String read(Path file) throws IOException {
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			var size = channel.size();
+			ByteBuffer buffer;
+			if (size < MAPPING_THRESHOLD) {
+				buffer = ByteBuffer.allocate((int) size);
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				}
+				buffer.flip();
+			} else {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			return StandardCharsets.UTF_8.newDecoder().decode(buffer).toString();
+		}
+	}
+	
+	/**
+	 * Resolves files, directories and glob patterns to DBML files.
+	 */
+	static List<Path> findFiles(List<String> inputs) throws IOException {
+		var files = new LinkedHashSet<Path>();
+		for (var input : inputs) {
+			if (isGlob(input)) {
+				findGlob(input, files);
+			} else {
+				var path = Path.of(input);
+				if (Files.isDirectory(path)) {
+					try (Stream<Path> paths = Files.walk(path)) {
+						paths.filter(p -> p.toString().endsWith(".dbml")).filter(Files::isRegularFile).sorted().forEach(files::add);
+					}
+				} else if (Files.isRegularFile(path)) {
+					files.add(path);
+				} else {
+					throw new IOException("No such file or directory: " + input);
+				}
+			}
+		}
+		return List.copyOf(files);
+	}
+	
+	private static boolean isGlob(String input) {
+		return input.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+	}
+	
+	private static void findGlob(String glob, Set<Path> files) throws IOException {
+		var separator = glob.replace('\\', '/');
+		var firstWildcard = separator.length();
+		for (var wildcard : new char[]{'*', '?', '[', '{'}) {
+			var index = separator.indexOf(wildcard);
+			if (index >= 0) firstWildcard = Math.min(firstWildcard, index);
+		}
+		var baseEnd = separator.lastIndexOf('/', firstWildcard);
+		var base = Path.of(baseEnd < 0 ? "." : glob.substring(0, Math.max(baseEnd, 1)));
+		var matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+		if (!Files.isDirectory(base)) return;
+		try (Stream<Path> paths = Files.walk(base)) {
+			paths.filter(Files::isRegularFile)
+					.filter(p -> matcher.matches(baseEnd < 0 ? base.relativize(p) : p))
+					.sorted()
+					.forEach(files::add);
+		}
+	}
+	
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+	
+	private record FileSummary(
+			int schemas,
+			long readNanos,
+			long translateNanos
+	) {
+	}
+	
+	record Options(
+			List<String> inputs,
+			Path output,
+			Config config,
+			int threads,
+			String javaPackage,
+			boolean help
+	) {
+		static Options parse(String[] args) {
+			var inputs = new ArrayList<String>();
+			var output = Path.of(".");
+			var builder = Config.builder();
+			var threads = Runtime.getRuntime().availableProcessors();
+			String javaPackage = null;
+			for (int i = 0; i < args.length; i++) {
+				var arg = args[i];
+				switch (arg) {
+					case "-h", "--help" -> {
+						return new Options(inputs, output, builder.build(), threads, javaPackage, true);
+					}
+					case "-o", "--output" -> output = Path.of(value(args, ++i, arg));
+					case "-n", "--namespace" -> builder.setNamespace(value(args, ++i, arg));
+					case "-m", "--type-mapping" -> {
+						var mapping = value(args, ++i, arg).split("=", 2);
+						if (mapping.length != 2) throw new IllegalArgumentException("Invalid type mapping: " + args[i]);
+						for (var dbmlType : mapping[1].split(",")) {
+							builder.addTypeMapping(mapping[0], dbmlType.strip());
+						}
+					}
+					case "-s", "--default-scale" -> builder.setDefaultScale(intValue(args, ++i, arg));
+					case "-p", "--profile" -> builder.setEncodingProfile(profileValue(args, ++i, arg));
+					case "-t", "--threads" -> {
+						threads = intValue(args, ++i, arg);
+						if (threads <= 0) throw new IllegalArgumentException("Threads must be a positive integer");
+					}
+					case "-j", "--java-package" -> javaPackage = value(args, ++i, arg);
+					default -> {
+						if (arg.startsWith("-")) throw new IllegalArgumentException("Unknown option: " + arg);
+						inputs.add(arg);
+					}
+				}
+			}
+			if (inputs.isEmpty()) throw new IllegalArgumentException("No input given");
+			return new Options(inputs, output, builder.build(), threads, javaPackage, false);
+		}
+		
+		private static String value(String[] args, int i, String option) {
+			if (i >= args.length) throw new IllegalArgumentException("Missing value of option " + option);
+			return args[i];
+		}
+		
+		private static EncodingProfile profileValue(String[] args, int i, String option) {
+			var value = value(args, i, option);
+			try {
+				return EncodingProfile.valueOf(value.toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Value of option %s must be standard or compact: %s".formatted(option, value), e);
+			}
+		}
+		
+		private static int intValue(String[] args, int i, String option) {
+			var value = value(args, i, option);
+			try {
+				return Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Value of option %s must be an integer: %s".formatted(option, value), e);
+			}
+		}
+	}
+}
@@ -3,28 +3,50 @@ package com.wn.dbml.avro;
 import com.wn.dbml.compiler.DbmlParser;
 import com.wn.dbml.model.Column;
 import com.wn.dbml.model.ColumnSetting;
-import com.wn.dbml.model.Database;
 import com.wn.dbml.model.Enum;
-import com.wn.dbml.model.EnumValue;
 import com.wn.dbml.model.Table;
 
-import java.io.PrintWriter;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.StringWriter;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * Translates DBML to Apache Avro schemas in JSON format.
  */
 public class DbmlAvroTranslator {
+	private static final String NEWLINE = System.lineSeparator();
+	private static final String CANONICAL_KEY_SUFFIX = ".canonical";
 	private final Config config;
 	private final NameValidator nameValidator;
 	private final NamespaceValidator namespaceValidator;
 	private final TypeMapper typeMapper;
+	private final TranslationCache cache;
+	private final ContentHasher contentHasher;
+	private final List<String> digestAlgorithms;
+	private final ValidationMode validationMode;
+	private final TranslationListener listener;
+	private final ParallelParser parser;
+	private final boolean validNamespace;
 	
 	/**
 	 * Default constructor.
@@ -35,14 +57,107 @@ public class DbmlAvroTranslator {
 		this(config, new NameValidator(), new NamespaceValidator(new NameValidator()), new TypeMapper(config));
 	}
 	
+	/**
+	 * Constructor sharing a type mapper, and thereby its memoized mappings, with other translators.
+	 *
+	 * @param config     Config
+	 * @param typeMapper a type mapper for the same config
+	 */
+	public DbmlAvroTranslator(Config config, TypeMapper typeMapper) {
+		this(config, new NameValidator(), new NamespaceValidator(new NameValidator()), typeMapper);
+	}
+	
 	/**
 	 * Constructor for dependency injection.
 	 */
 	public DbmlAvroTranslator(Config config, NameValidator nameValidator, NamespaceValidator namespaceValidator, TypeMapper typeMapper) {
+		this(config, nameValidator, namespaceValidator, typeMapper, null, null, ValidationMode.FAIL_FAST, null, null);
+	}
+	
+	private DbmlAvroTranslator(Config config, NameValidator nameValidator, NamespaceValidator namespaceValidator, TypeMapper typeMapper, TranslationCache cache, List<String> digestAlgorithms, ValidationMode validationMode, TranslationListener listener, ParallelParser parser) {
 		this.config = config;
 		this.nameValidator = nameValidator;
 		this.namespaceValidator = namespaceValidator;
 		this.typeMapper = typeMapper;
+		this.cache = cache;
+		this.contentHasher = cache == null ? null : new ContentHasher(config);
+		this.digestAlgorithms = digestAlgorithms;
+		this.validationMode = validationMode;
+		this.listener = listener;
+		this.parser = parser;
+		this.validNamespace = config.namespace() == null || namespaceValidator.isValid(config.namespace());
+	}
+	
+	/**
+	 * Returns a translator that reuses the schemas of unchanged tables and enums from the cache.
+	 * Applies to all translations returning results.
+	 *
+	 * @param cache the translation cache
+	 * @return the caching translator
+	 */
+	public DbmlAvroTranslator withCache(TranslationCache cache) {
+		return new DbmlAvroTranslator(config, nameValidator, namespaceValidator, typeMapper, cache, digestAlgorithms, validationMode, listener, parser);
+	}
+	
+	/**
+	 * Returns a translator that attaches the Parsing Canonical Form of each schema to its result,
+	 * along with its 64-bit Rabin fingerprint and the requested digests.
+	 * Applies to all translations returning results.
+	 *
+	 * @param digestAlgorithms the additional digest algorithms, e.g. MD5 or SHA-256
+	 * @return the translator
+	 * @see CanonicalForm
+	 */
+	public DbmlAvroTranslator withCanonicalForm(String... digestAlgorithms) {
+		for (var algorithm : digestAlgorithms) {
+			try {
+				MessageDigest.getInstance(algorithm);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, e);
+			}
+		}
+		return new DbmlAvroTranslator(config, nameValidator, namespaceValidator, typeMapper, cache, List.of(digestAlgorithms), validationMode, listener, parser);
+	}
+	
+	/**
+	 * Returns a translator using the validation mode.
+	 * In {@link ValidationMode#COLLECT} mode, no results are passed on for tables and enums with violations,
+	 * whereas written schemas may be incomplete.
+	 *
+	 * @param validationMode the validation mode
+	 * @return the translator
+	 */
+	public DbmlAvroTranslator withValidationMode(ValidationMode validationMode) {
+		return new DbmlAvroTranslator(config, nameValidator, namespaceValidator, typeMapper, cache, digestAlgorithms, validationMode, listener, parser);
+	}
+	
+	/**
+	 * Returns a translator reporting the metrics of each translation to the listener.
+	 * The metrics are also recorded as Java Flight Recorder events, if enabled in a running recording.
+	 * Without a listener or recording, the translation is not instrumented at all.
+	 *
+	 * @param listener the translation listener
+	 * @return the translator
+	 * @see TranslationEvents
+	 */
+	public DbmlAvroTranslator withListener(TranslationListener listener) {
+		return new DbmlAvroTranslator(config, nameValidator, namespaceValidator, typeMapper, cache, digestAlgorithms, validationMode, listener, parser);
+	}
+	
+	/**
+	 * Returns a translator that parses large DBML models in parallel on the executor,
+	 * by splitting them into chunks of top-level tables and enums.
+	 * The results and parsing errors are the same as those of the sequential parser.
+	 * Only models consisting of tables and enums are split, whereas models containing any other block,
+	 * e.g. references or table groups, are parsed sequentially, as well as models with a chunk containing an inline
+	 * reference to a table of another chunk.
+	 * Applies to all translations.
+	 *
+	 * @param executor the executor parsing the chunks
+	 * @return the translator
+	 */
+	public DbmlAvroTranslator withParallelParsing(Executor executor) {
+		return new DbmlAvroTranslator(config, nameValidator, namespaceValidator, typeMapper, cache, digestAlgorithms, validationMode, listener, new ParallelParser(executor));
 	}
 	
 	/**
@@ -52,7 +167,8 @@ public class DbmlAvroTranslator {
 	 * @return the result list
 	 */
 	public List<Result> translate(String dbml) {
-		return translate(DbmlParser.parse(dbml));
+		var metrics = Metrics.start(listener);
+		return translate(parse(dbml, metrics), metrics);
 	}
 	
 	/**
@@ -62,136 +178,727 @@ public class DbmlAvroTranslator {
 	 * @return the result list
 	 */
 	public List<Result> translate(Reader dbml) {
-		return translate(DbmlParser.parse(dbml));
+		var metrics = Metrics.start(listener);
+		return translate(parse(dbml, metrics), metrics);
 	}
 	
-	private List<Result> translate(Database database) {
-		var enums = database.getSchemas().stream()
-				.flatMap(schema -> schema.getEnums().stream().map(this::translate))
-				.toList();
-		var enumMap = enums.stream().collect(Collectors.toMap(Result::name, Result::schema));
-		var tables = database.getSchemas().stream()
-				.flatMap(schema -> schema.getTables().stream().map(table -> translate(table, new HashMap<>(enumMap))))
+	/**
+	 * Translates DBML to Avro schemas, rendering the tables in parallel on the executor.
+	 * The results are the same and in the same order as those of the sequential translation.
+	 *
+	 * @param dbml     a DBML string
+	 * @param executor the executor rendering the tables, e.g. a {@link java.util.concurrent.ForkJoinPool}
+	 *                 or a virtual thread executor
+	 * @return the result list
+	 */
+	public List<Result> translateParallel(String dbml, Executor executor) {
+		var metrics = Metrics.start(listener);
+		return translateParallel(parse(dbml, metrics), executor, metrics);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas, rendering the tables in parallel on the executor.
+	 * The results are the same and in the same order as those of the sequential translation.
+	 *
+	 * @param dbml     a DBML reader
+	 * @param executor the executor rendering the tables, e.g. a {@link java.util.concurrent.ForkJoinPool}
+	 *                 or a virtual thread executor
+	 * @return the result list
+	 */
+	public List<Result> translateParallel(Reader dbml, Executor executor) {
+		var metrics = Metrics.start(listener);
+		return translateParallel(parse(dbml, metrics), executor, metrics);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and passes each result to the consumer as soon as it is translated.
+	 * Tables are passed first, followed by the enums, in the same order as in the result list.
+	 *
+	 * @param dbml     a DBML string
+	 * @param consumer the result consumer
+	 */
+	public void translate(String dbml, Consumer<Result> consumer) {
+		var metrics = Metrics.start(listener);
+		translate(parse(dbml, metrics), consumer, metrics);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and passes each result to the consumer as soon as it is translated.
+	 * Tables are passed first, followed by the enums, in the same order as in the result list.
+	 *
+	 * @param dbml     a DBML reader
+	 * @param consumer the result consumer
+	 */
+	public void translate(Reader dbml, Consumer<Result> consumer) {
+		var metrics = Metrics.start(listener);
+		translate(parse(dbml, metrics), consumer, metrics);
+	}
+	
+	/**
+	 * Lists the records and enums the DBML translates to, without translating their schemas.
+	 * Each schema is translated on demand by {@link SchemaIndex.Entry#result()}, which also validates its names and types.
+	 *
+	 * @param dbml a DBML string
+	 * @return the index
+	 */
+	public SchemaIndex index(String dbml) {
+		return index(parse(dbml, null));
+	}
+	
+	/**
+	 * Lists the records and enums the DBML translates to, without translating their schemas.
+	 * Each schema is translated on demand by {@link SchemaIndex.Entry#result()}, which also validates its names and types.
+	 *
+	 * @param dbml a DBML reader
+	 * @return the index
+	 */
+	public SchemaIndex index(Reader dbml) {
+		return index(parse(dbml, null));
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes each schema to its own target of the output.
+	 * Tables are written first, followed by the enums, in the same order as in the result list.
+	 *
+	 * @param dbml   a DBML string
+	 * @param output the schema output
+	 * @throws IOException if writing a schema fails
+	 */
+	public void write(String dbml, SchemaOutput output) throws IOException {
+		var metrics = Metrics.start(listener);
+		write(parse(dbml, metrics), output, metrics);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes each schema to its own target of the output.
+	 * Tables are written first, followed by the enums, in the same order as in the result list.
+	 *
+	 * @param dbml   a DBML reader
+	 * @param output the schema output
+	 * @throws IOException if writing a schema fails
+	 */
+	public void write(Reader dbml, SchemaOutput output) throws IOException {
+		var metrics = Metrics.start(listener);
+		write(parse(dbml, metrics), output, metrics);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them to a single target, each followed by a line separator.
+	 * Tables are written first, followed by the enums, in the same order as in the result list.
+	 * The target is flushed at the end, if it is {@link Flushable}, but never closed.
+	 * If the translation fails, the target may end with an incomplete schema.
+	 *
+	 * @param dbml a DBML string
+	 * @param out  the target, e.g. a {@link java.io.Writer}
+	 * @throws IOException if writing a schema fails
+	 */
+	public void write(String dbml, Appendable out) throws IOException {
+		write(dbml, SchemaOutput.of(out));
+		flush(out);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them to a single target, each followed by a line separator.
+	 * Tables are written first, followed by the enums, in the same order as in the result list.
+	 * The target is flushed at the end, if it is {@link Flushable}, but never closed.
+	 * If the translation fails, the target may end with an incomplete schema.
+	 *
+	 * @param dbml a DBML reader
+	 * @param out  the target, e.g. a {@link java.io.Writer}
+	 * @throws IOException if writing a schema fails
+	 */
+	public void write(Reader dbml, Appendable out) throws IOException {
+		write(dbml, SchemaOutput.of(out));
+		flush(out);
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them in UTF-8 to a single stream, each followed by a line separator.
+	 * The stream is flushed at the end, but never closed.
+	 *
+	 * @param dbml a DBML string
+	 * @param out  the stream
+	 * @throws IOException if writing a schema fails
+	 * @see #write(String, Appendable)
+	 */
+	public void write(String dbml, OutputStream out) throws IOException {
+		write(dbml, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them in UTF-8 to a single stream, each followed by a line separator.
+	 * The stream is flushed at the end, but never closed.
+	 *
+	 * @param dbml a DBML reader
+	 * @param out  the stream
+	 * @throws IOException if writing a schema fails
+	 * @see #write(Reader, Appendable)
+	 */
+	public void write(Reader dbml, OutputStream out) throws IOException {
+		write(dbml, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them in UTF-8 to a single channel, each followed by a line separator.
+	 * The channel is never closed.
+	 *
+	 * @param dbml    a DBML string
+	 * @param channel the channel
+	 * @throws IOException if writing a schema fails
+	 * @see #write(String, Appendable)
+	 */
+	public void write(String dbml, WritableByteChannel channel) throws IOException {
+		write(dbml, Channels.newWriter(channel, StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Translates DBML to Avro schemas and writes them in UTF-8 to a single channel, each followed by a line separator.
+	 * The channel is never closed.
+	 *
+	 * @param dbml    a DBML reader
+	 * @param channel the channel
+	 * @throws IOException if writing a schema fails
+	 * @see #write(Reader, Appendable)
+	 */
+	public void write(Reader dbml, WritableByteChannel channel) throws IOException {
+		write(dbml, Channels.newWriter(channel, StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Writes a parsed model, so that it can be shared with an {@link AvroSchemaTranslator}.
+	 */
+	void write(ParsedDbml dbml, SchemaOutput output) throws IOException {
+		write(dbml, output, Metrics.start(listener));
+	}
+	
+	private static void flush(Appendable out) throws IOException {
+		if (out instanceof Flushable flushable) {
+			flushable.flush();
+		}
+	}
+	
+	/**
+	 * Parses DBML like the translation methods do, i.e. in parallel, if configured.
+	 */
+	ParsedDbml parse(String dbml) {
+		return parse(dbml, null);
+	}
+	
+	private ParsedDbml parse(String dbml, Metrics metrics) {
+		if (parser == null) {
+			return Metrics.parse(() -> ParsedDbml.of(DbmlParser.parse(dbml)), metrics);
+		}
+		return Metrics.parse(() -> parser.parse(dbml), metrics);
+	}
+	
+	private ParsedDbml parse(Reader dbml, Metrics metrics) {
+		if (parser == null) {
+			return Metrics.parse(() -> ParsedDbml.of(DbmlParser.parse(dbml)), metrics);
+		}
+		return Metrics.parse(() -> parser.parse(read(dbml)), metrics);
+	}
+	
+	private static String read(Reader reader) {
+		var sb = new StringBuilder();
+		var buffer = new char[8192];
+		try {
+			int read;
+			while ((read = reader.read(buffer)) >= 0) {
+				sb.append(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Translates a parsed model, so that the translation can be measured without parsing.
+	 */
+	List<Result> translate(ParsedDbml dbml, Metrics metrics) {
+		var results = new ArrayList<Result>();
+		translate(dbml, results::add, metrics);
+		return Collections.unmodifiableList(results);
+	}
+	
+	private List<Result> translateParallel(ParsedDbml dbml, Executor executor, Metrics metrics) {
+		var violations = new Violations(validationMode);
+		validateNamespace(violations);
+		var enums = getEnums(dbml, violations, metrics);
+		var namedTypes = dbml.namedTypes();
+		var tables = dbml.tables();
+		var tableViolations = tables.stream()
+				.map(table -> violations.forContext(table.getName()))
 				.toList();
-		return Stream.concat(tables.stream(), enums.stream()).toList();
+		var futures = new ArrayList<CompletableFuture<Result>>(tables.size());
+		for (int i = 0; i < tables.size(); i++) {
+			var table = tables.get(i);
+			var violationsOfTable = tableViolations.get(i);
+			futures.add(CompletableFuture.supplyAsync(() -> translate(table, namedTypes, violationsOfTable, metrics), executor));
+		}
+		var results = new ArrayList<Result>(tables.size() + enums.size());
+		for (int i = 0; i < futures.size(); i++) {
+			var result = join(futures.get(i));
+			violations.addAll(tableViolations.get(i));
+			if (result != null) {
+				results.add(result);
+			}
+		}
+		violations.check();
+		enums.forEach(anEnum -> results.add(translate(anEnum, metrics)));
+		if (metrics != null) {
+			metrics.completed();
+		}
+		return Collections.unmodifiableList(results);
+	}
+	
+	private static Result join(CompletableFuture<Result> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+	
+	private void translate(ParsedDbml dbml, Consumer<Result> consumer, Metrics metrics) {
+		var violations = new Violations(validationMode);
+		validateNamespace(violations);
+		var enums = getEnums(dbml, violations, metrics);
+		var namedTypes = dbml.namedTypes();
+		for (var table : dbml.tables()) {
+			var tableViolations = violations.forContext(table.getName());
+			var result = translate(table, namedTypes, tableViolations, metrics);
+			violations.addAll(tableViolations);
+			if (result != null) {
+				consumer.accept(result);
+			}
+		}
+		enums.forEach(anEnum -> consumer.accept(translate(anEnum, metrics)));
+		violations.check();
+		if (metrics != null) {
+			metrics.completed();
+		}
+	}
+	
+	private SchemaIndex index(ParsedDbml dbml) {
+		var namedTypes = dbml.namedTypes();
+		var namespace = config.namespace();
+		var entries = new ArrayList<SchemaIndex.Entry>();
+		for (var table : dbml.tables()) {
+			var enumTypes = new LinkedHashSet<String>();
+			for (var column : table.getColumns()) {
+				var anEnum = namedTypes.resolve(column.getType());
+				if (anEnum != null) {
+					enumTypes.add(anEnum.getName());
+				}
+			}
+			entries.add(new SchemaIndex.Entry(table.getName(), namespace, SchemaIndex.Kind.RECORD, table.getColumns().size(),
+					List.copyOf(enumTypes), () -> translateEntry(table, namedTypes)));
+		}
+		for (var schemaEnums : dbml.enums().values()) {
+			for (var anEnum : schemaEnums) {
+				entries.add(new SchemaIndex.Entry(anEnum.getName(), namespace, SchemaIndex.Kind.ENUM, 0,
+						List.of(), () -> translateEntry(anEnum)));
+			}
+		}
+		return new SchemaIndex(Collections.unmodifiableList(entries));
+	}
+	
+	private Result translateEntry(Table table, NamedTypes namedTypes) {
+		var violations = new Violations(validationMode);
+		validateNamespace(violations);
+		var tableViolations = violations.forContext(table.getName());
+		var result = translate(table, namedTypes, tableViolations, null);
+		violations.addAll(tableViolations);
+		violations.check();
+		return result;
+	}
+	
+	private Result translateEntry(Enum anEnum) {
+		var violations = new Violations(validationMode);
+		validateNamespace(violations);
+		var enumViolations = violations.forContext(anEnum.getName());
+		validateName(anEnum.getName(), enumViolations, null);
+		anEnum.getValues().forEach(v -> validateName(v.getName(), enumViolations, null));
+		violations.addAll(enumViolations);
+		violations.check();
+		return translate(anEnum, null);
+	}
+	
+	private void write(ParsedDbml dbml, SchemaOutput output, Metrics metrics) throws IOException {
+		var violations = new Violations(validationMode);
+		validateNamespace(violations);
+		var enums = getEnums(dbml, violations, metrics);
+		var namedTypes = dbml.namedTypes();
+		for (var table : dbml.tables()) {
+			var tableViolations = violations.forContext(table.getName());
+			if (metrics == null) {
+				write(output, table.getName(), out -> appendRecord(table, namedTypes, tableViolations, null, out, null));
+			} else {
+				var timer = metrics.startTimer();
+				write(output, table.getName(), out -> appendRecord(table, namedTypes, tableViolations, timer, timer.count(out), null));
+				metrics.tableTranslated(timer, table.getName(), table.getColumns().size(), timer.getBytes());
+			}
+			violations.addAll(tableViolations);
+		}
+		for (var anEnum : enums) {
+			if (metrics == null) {
+				write(output, anEnum.getName(), out -> appendEnum(anEnum, "", out));
+			} else {
+				var timer = metrics.startTimer();
+				write(output, anEnum.getName(), out -> appendEnum(anEnum, "", timer.count(out)));
+				metrics.enumTranslated(timer, timer.getBytes());
+			}
+		}
+		violations.check();
+		if (metrics != null) {
+			metrics.completed();
+		}
 	}
 	
-	private Result translate(Table table, Map<String, String> enums) {
+	/**
+	 * Returns the valid enums of the model.
+	 */
+	private List<Enum> getEnums(ParsedDbml dbml, Violations violations, Metrics metrics) {
+		var timer = metrics == null ? null : metrics.startTimer();
+		var enums = new ArrayList<Enum>();
+		for (var schemaEnums : dbml.enums().values()) {
+			for (var anEnum : schemaEnums) {
+				var enumViolations = violations.forContext(anEnum.getName());
+				validateName(anEnum.getName(), enumViolations, timer);
+				anEnum.getValues().forEach(v -> validateName(v.getName(), enumViolations, timer));
+				violations.addAll(enumViolations);
+				if (enumViolations.isEmpty()) {
+					enums.add(anEnum);
+				}
+			}
+		}
+		if (metrics != null) {
+			metrics.validated(timer);
+		}
+		return enums;
+	}
+	
+	private void write(SchemaOutput output, String name, SchemaAppender appender) throws IOException {
+		var out = output.open(name);
+		try {
+			appender.append(out);
+		} catch (IOException | RuntimeException e) {
+			try {
+				output.abort(name, out);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		output.finish(name, out);
+	}
+	
+	/**
+	 * Translates a table.
+	 *
+	 * @return the result or null, if violations were collected
+	 */
+	private Result translate(Table table, NamedTypes namedTypes, Violations violations, Metrics metrics) {
+		var timer = metrics == null ? null : metrics.startTimer();
+		var key = cache == null ? null : contentHasher.hash(table, namedTypes);
+		var schema = key == null ? null : cache.get(key);
+		var canonicalSchema = schema == null || digestAlgorithms == null ? null : cache.get(key + CANONICAL_KEY_SUFFIX);
+		if (schema == null || digestAlgorithms != null && canonicalSchema == null) {
+			var canonical = digestAlgorithms == null ? null : new StringBuilder();
+			schema = toString(out -> appendRecord(table, namedTypes, violations, timer, out, canonical));
+			canonicalSchema = canonical == null ? null : canonical.toString();
+			if (key != null && violations.isEmpty()) {
+				cache.put(key, schema);
+				if (canonicalSchema != null) {
+					cache.put(key + CANONICAL_KEY_SUFFIX, canonicalSchema);
+				}
+			}
+		}
+		if (!violations.isEmpty()) {
+			return null;
+		}
+		var canonicalForm = canonicalSchema == null ? null : toCanonicalForm(canonicalSchema);
+		if (metrics != null) {
+			metrics.tableTranslated(timer, table.getName(), table.getColumns().size(), Metrics.utf8Length(schema));
+		}
+		return new Result(table.getName(), schema, canonicalForm);
+	}
+	
+	private Result translate(Enum anEnum, Metrics metrics) {
+		var timer = metrics == null ? null : metrics.startTimer();
+		var canonicalForm = digestAlgorithms == null ? null : toCanonicalForm(toString(out -> appendCanonicalEnum(anEnum, out)));
+		String schema;
+		if (cache == null) {
+			schema = toString(out -> appendEnum(anEnum, "", out));
+		} else {
+			schema = getCached(contentHasher.hash(anEnum), out -> appendEnum(anEnum, "", out), null);
+		}
+		if (metrics != null) {
+			metrics.enumTranslated(timer, Metrics.utf8Length(schema));
+		}
+		return new Result(anEnum.getName(), schema, canonicalForm);
+	}
+	
+	private String getCached(String key, SchemaAppender appender, Violations violations) {
+		var schema = cache.get(key);
+		if (schema == null) {
+			schema = toString(appender);
+			if (violations == null || violations.isEmpty()) {
+				cache.put(key, schema);
+			}
+		}
+		return schema;
+	}
+	
+	private static String toString(SchemaAppender appender) {
+		var sb = new StringBuilder();
+		try {
+			appender.append(sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Appends the schema of a table and, if requested, its Parsing Canonical Form in the same traversal.
+	 * Any change to the rendering must increment {@link ContentHasher#FORMAT_VERSION}, so that cached schemas are not reused.
+	 *
+	 * @param canonical the target of the canonical form, or null
+	 */
+	private void appendRecord(Table table, NamedTypes namedTypes, Violations violations, Metrics.Timer timer, Appendable out, Appendable canonical) throws IOException {
 		var name = table.getName();
-		validateName(name);
-		var sw = new StringWriter();
-		try (var pw = new PrintWriter(sw)) {
-			pw.println("{");
-			pw.println("  \"type\": \"record\",");
-			pw.printf("  \"%s\": \"%s\"", "name", name);
-			var namespace = config.namespace();
-			if (namespace != null) {
-				validateNamespace(namespace);
-				pw.printf(",%n  \"%s\": \"%s\"", "namespace", namespace);
-			}
-			var doc = table.getNote();
-			if (doc != null) {
-				pw.printf(",%n  \"%s\": \"%s\"", "doc", doc);
-			}
-			var alias = table.getAlias();
-			if (alias != null) {
-				pw.printf(",%n  \"%s\": [\"%s\"]", "aliases", alias);
-			}
-			pw.printf(",%n  \"%s\": [%n", "fields");
-			appendFields(table, enums, pw);
-			pw.printf("%n  ]%n");
-			pw.print("}");
-		}
-		return new Result(name, sw.toString());
-	}
-	
-	private void appendFields(Table table, Map<String, String> enums, PrintWriter pw) {
+		validateName(name, violations, timer);
+		if (canonical != null) {
+			canonical.append("{\"name\":\"").append(getFullName(name)).append("\",\"type\":\"record\",\"fields\":[");
+		}
+		out.append('{').append(NEWLINE);
+		out.append("  \"type\": \"record\",").append(NEWLINE);
+		out.append("  \"name\": \"").append(name).append('"');
+		var namespace = config.namespace();
+		if (namespace != null) {
+			out.append(',').append(NEWLINE).append("  \"namespace\": \"").append(namespace).append('"');
+		}
+		var doc = table.getNote();
+		if (doc != null) {
+			out.append(',').append(NEWLINE).append("  \"doc\": \"").append(doc).append('"');
+		}
+		var alias = table.getAlias();
+		if (alias != null) {
+			out.append(',').append(NEWLINE).append("  \"aliases\": [\"").append(alias).append("\"]");
+		}
+		out.append(',').append(NEWLINE).append("  \"fields\": [").append(NEWLINE);
+		appendFields(table, namedTypes, violations, timer, out, canonical);
+		out.append(NEWLINE).append("  ]").append(NEWLINE);
+		out.append('}');
+		if (canonical != null) {
+			canonical.append("]}");
+		}
+	}
+	
+	private void appendFields(Table table, NamedTypes namedTypes, Violations violations, Metrics.Timer timer, Appendable out, Appendable canonical) throws IOException {
+		var scope = namedTypes.newScope();
 		for (var iterator = table.getColumns().iterator(); iterator.hasNext(); ) {
 			var column = iterator.next();
-			appendField(column, enums, pw);
+			appendField(column, namedTypes, scope, violations, timer, out, canonical);
 			if (iterator.hasNext()) {
-				pw.println(",");
+				out.append(',').append(NEWLINE);
+				if (canonical != null) {
+					canonical.append(',');
+				}
 			}
 		}
 	}
 	
-	private void appendField(Column column, Map<String, String> enums, PrintWriter pw) {
+	private void appendField(Column column, NamedTypes namedTypes, NamedTypes.Scope scope, Violations violations, Metrics.Timer timer, Appendable out, Appendable canonical) throws IOException {
 		var name = column.getName();
-		validateName(name);
-		pw.printf("    {\"%s\": \"%s\"", "name", name);
+		validateName(name, violations, timer);
+		out.append("    {\"name\": \"").append(name).append('"');
 		var doc = column.getNote();
 		if (doc != null) {
-			pw.printf(", \"%s\": \"%s\"", "doc", doc);
+			out.append(", \"doc\": \"").append(doc).append('"');
+		}
+		out.append(", \"type\": ");
+		var nullable = !column.getSettings().containsKey(ColumnSetting.NOT_NULL);
+		if (nullable) {
+			out.append('[');
+		}
+		if (canonical != null) {
+			canonical.append("{\"name\":\"").append(name).append("\",\"type\":");
+			if (nullable) {
+				canonical.append('[');
+			}
 		}
-		pw.printf(", \"%s\": ", "type");
 		var columnType = column.getType();
-		if (enums.containsKey(columnType)) {
-			var enumSchema = enums.get(columnType);
-			if (enumSchema == null) {
-				appendField(column, columnType, true, pw);
+		var anEnum = namedTypes.resolve(columnType);
+		if (anEnum != null) {
+			if (scope.define(anEnum)) {
+				appendEnum(anEnum, "    ", out);
+				if (canonical != null) {
+					appendCanonicalEnum(anEnum, canonical);
+				}
 			} else {
-				appendField(column, enumSchema.indent(4).trim(), false, pw);
-				enums.put(columnType, null);
+				out.append('"').append(anEnum.getName()).append('"');
+				if (canonical != null) {
+					canonical.append('"').append(getFullName(anEnum.getName())).append('"');
+				}
 			}
 		} else {
-			appendField(column, typeMapper.map(columnType), true, pw);
+			appendType(column, scope, violations, timer, out, canonical);
+		}
+		if (nullable) {
+			out.append(", \"null\"]");
+		}
+		out.append('}');
+		if (canonical != null) {
+			canonical.append(nullable ? ",\"null\"]}" : "}");
 		}
-		pw.print("}");
 	}
 	
-	private void appendField(Column column, String type, boolean quoted, PrintWriter pw) {
-		var quote = quoted ? "\"" : "";
-		if (column.getSettings().containsKey(ColumnSetting.NOT_NULL)) {
-			pw.printf("%s%s%s", quote, type, quote);
+	private void appendType(Column column, NamedTypes.Scope scope, Violations violations, Metrics.Timer timer, Appendable out, Appendable canonical) throws IOException {
+		TypeMapper.Mapping mapping;
+		var start = timer == null ? 0 : System.nanoTime();
+		try {
+			mapping = typeMapper.getMapping(column.getType());
+		} catch (IllegalArgumentException e) {
+			violations.add(column.getName(), e);
+			out.append("\"null\"");
+			return;
+		} finally {
+			if (timer != null) {
+				timer.addMapTypesNanos(System.nanoTime() - start);
+			}
+		}
+		var avroType = mapping.type();
+		if (avroType.type().equals("fixed")) {
+			// a fixed type is a named type, which is only defined once per record
+			var name = avroType.name();
+			if (scope.defineFixed(name)) {
+				out.append(mapping.json());
+				if (canonical != null) {
+					canonical.append(avroType.toCanonicalJson(config.namespace()));
+				}
+			} else {
+				out.append('"').append(name).append('"');
+				if (canonical != null) {
+					canonical.append('"').append(getFullName(name)).append('"');
+				}
+			}
+			return;
+		}
+		var json = mapping.json();
+		if (json.charAt(0) == '{') {
+			out.append(json);
 		} else {
-			pw.printf("[%s%s%s, \"null\"]", quote, type, quote);
+			out.append('"').append(json).append('"');
+		}
+		if (canonical != null) {
+			canonical.append('"').append(avroType.type()).append('"');
+		}
+	}
+	
+	private void appendEnum(Enum anEnum, String indent, Appendable out) throws IOException {
+		out.append('{').append(NEWLINE);
+		out.append(indent).append("  \"type\": \"enum\",").append(NEWLINE);
+		out.append(indent).append("  \"name\": \"").append(anEnum.getName()).append('"');
+		var namespace = config.namespace();
+		if (namespace != null) {
+			out.append(',').append(NEWLINE).append(indent).append("  \"namespace\": \"").append(namespace).append('"');
+		}
+		out.append(',').append(NEWLINE).append(indent).append("  \"symbols\": [");
+		for (var iterator = anEnum.getValues().iterator(); iterator.hasNext(); ) {
+			out.append('"').append(iterator.next().getName()).append('"');
+			if (iterator.hasNext()) {
+				out.append(", ");
+			}
+		}
+		out.append(']').append(NEWLINE);
+		out.append(indent).append('}');
+	}
+	
+	private void appendCanonicalEnum(Enum anEnum, Appendable out) throws IOException {
+		out.append("{\"name\":\"").append(getFullName(anEnum.getName())).append("\",\"type\":\"enum\",\"symbols\":[");
+		for (var iterator = anEnum.getValues().iterator(); iterator.hasNext(); ) {
+			out.append('"').append(iterator.next().getName()).append('"');
+			if (iterator.hasNext()) {
+				out.append(',');
+			}
 		}
+		out.append("]}");
+	}
+	
+	private String getFullName(String name) {
+		var namespace = config.namespace();
+		return namespace == null || namespace.isEmpty() ? name : namespace + '.' + name;
 	}
 	
-	private Result translate(Enum anEnum) {
-		var name = anEnum.getName();
-		validateName(name);
-		var sw = new StringWriter();
-		try (var pw = new PrintWriter(sw)) {
-			pw.println("{");
-			pw.println("  \"type\": \"enum\",");
-			pw.printf("  \"%s\": \"%s\"", "name", name);
-			var namespace = config.namespace();
-			if (namespace != null) {
-				validateNamespace(namespace);
-				pw.printf(",%n  \"%s\": \"%s\"", "namespace", namespace);
+	private CanonicalForm toCanonicalForm(String schema) {
+		var bytes = schema.getBytes(StandardCharsets.UTF_8);
+		var digests = new LinkedHashMap<String, String>();
+		for (var algorithm : digestAlgorithms) {
+			try {
+				digests.put(algorithm, HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(bytes)));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
 			}
-			anEnum.getValues().forEach(v -> validateName(v.getName()));
-			var symbols = anEnum.getValues().stream()
-					.map(EnumValue::getName)
-					.collect(Collectors.joining("\", \"", "\"", "\""));
-			pw.printf(",%n  \"%s\": [%s]%n", "symbols", symbols);
-			pw.print("}");
 		}
-		return new Result(name, sw.toString());
+		return new CanonicalForm(schema, SchemaFingerprint.rabin(bytes), Collections.unmodifiableMap(digests));
 	}
 	
-	private void validateName(String name) {
+	private void validateName(String name, Violations violations, Metrics.Timer timer) {
+		var start = timer == null ? 0 : System.nanoTime();
 		if (!nameValidator.isValid(name)) {
-			throw new IllegalArgumentException("Invalid name: " + name);
+			violations.add("Invalid name: " + name);
+		}
+		if (timer != null) {
+			timer.addValidateNanos(System.nanoTime() - start);
 		}
 	}
 	
-	private void validateNamespace(String namespace) {
-		if (!namespaceValidator.isValid(namespace)) {
-			throw new IllegalArgumentException("Invalid namespace: " + namespace);
+	private void validateNamespace(Violations violations) {
+		if (!validNamespace) {
+			violations.add("Invalid namespace: " + config.namespace());
 		}
 	}
 	
+	@FunctionalInterface
+	private interface SchemaAppender {
+		void append(Appendable out) throws IOException;
+	}
+	
 	/**
 	 * Contains the result of a translation.
 	 *
-	 * @param name   The name of the translated table or enum.
-	 * @param schema The resulting Avro schema in JSON format.
+	 * @param name          The name of the translated table or enum.
+	 * @param schema        The resulting Avro schema in JSON format.
+	 * @param canonicalForm The Parsing Canonical Form of the schema, if requested.
+	 * @see #withCanonicalForm(String...)
 	 */
 	public record Result(
 			String name,
-			String schema
+			String schema,
+			CanonicalForm canonicalForm
+	) {
+		public Result(String name, String schema) {
+			this(name, schema, null);
+		}
+	}
+	
+	/**
+	 * Contains the Parsing Canonical Form of a translated schema and its fingerprints.
+	 *
+	 * @param schema      The Avro schema in Parsing Canonical Form.
+	 * @param fingerprint The 64-bit Rabin fingerprint (CRC-64-AVRO) of the canonical form.
+	 * @param digests     The hex-encoded digests of the canonical form by their algorithm.
+	 */
+	public record CanonicalForm(
+			String schema,
+			long fingerprint,
+			Map<String, String> digests
 	) {
 	}
 }
@@ -0,0 +1,63 @@
+package com.wn.dbml.avro;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes each schema to a temporary file in the directory, which is moved to {@code <name>.avsc} once the schema is complete.
+ */
+class DirectoryOutput implements SchemaOutput {
+	private static final String EXTENSION = ".avsc";
+	
+	private final Path directory;
+	
+	DirectoryOutput(Path directory) {
+		this.directory = directory;
+	}
+	
+	@Override
+	public Appendable open(String name) throws IOException {
+		var temp = Files.createTempFile(directory, name, ".tmp");
+		try {
+			return new TempFileWriter(Files.newBufferedWriter(temp), temp);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+	
+	@Override
+	public void finish(String name, Appendable target) throws IOException {
+		var writer = (TempFileWriter) target;
+		try {
+			writer.close();
+			Files.move(writer.temp, directory.resolve(name + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(writer.temp);
+			throw e;
+		}
+	}
+	
+	@Override
+	public void abort(String name, Appendable target) throws IOException {
+		var writer = (TempFileWriter) target;
+		try {
+			writer.close();
+		} finally {
+			Files.deleteIfExists(writer.temp);
+		}
+	}
+	
+	private static final class TempFileWriter extends FilterWriter {
+		private final Path temp;
+		
+		private TempFileWriter(Writer out, Path temp) {
+			super(out);
+			this.temp = temp;
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.wn.dbml.avro;
+
+/**
+ * Determines how the Avro types of column types are chosen beyond the type mappings.
+ *
+ * @see Config.Builder#setEncodingProfile(EncodingProfile)
+ */
+public enum EncodingProfile {
+	/**
+	 * Uses the mapped Avro types as they are.
+	 */
+	STANDARD,
+	/**
+	 * Prefers the most compact binary encoding of a column type:
+	 * decimals are fixed with the minimal size for their precision, {@code binary(n)} is {@code fixed(n)},
+	 * {@code smallint} and {@code tinyint} are narrowed to {@code int},
+	 * and times and timestamps with a declared precision of up to 3 are in millis, otherwise in micros.
+	 */
+	COMPACT
+}
@@ -0,0 +1,369 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A schema store in a local directory, which can stand in for a schema registry.
+ * Schemas are content-addressed by the 64-bit Rabin fingerprint of their Parsing Canonical Form and stored only once,
+ * no matter how many subjects or versions refer to them, or how their JSON is formatted.
+ * Each schema is stored with the SHA-256 digest of its canonical form, so that registering a schema
+ * whose fingerprint is already taken by a different schema fails with an {@link IllegalStateException}.
+ * <p>
+ * The store consists of two append-only logs, {@code schemas.log} and {@code subjects.log},
+ * which are indexed in memory when the store is opened, so that unchanged schemas are skipped by a hash lookup.
+ * All schemas and versions of a {@link #registerAll(Collection)} call are appended in a single write per log,
+ * followed by a single fsync per log.
+ * An incomplete record at the end of a log, e.g. after a crash, is discarded when the store is opened.
+ */
+public class FileSchemaStore implements SchemaStore, Closeable {
+	private static final String SCHEMAS_FILE = "schemas.log";
+	private static final String SUBJECTS_FILE = "subjects.log";
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final int DIGEST_LENGTH = 64;
+	private final FileChannel schemaLog;
+	private final FileChannel subjectLog;
+	private final Map<Long, Location> locations = new HashMap<>();
+	private final Map<String, Subject> subjects = new HashMap<>();
+	
+	/**
+	 * @param directory The store directory, which is created if it does not exist
+	 */
+	public FileSchemaStore(Path directory) {
+		try {
+			Files.createDirectories(directory);
+			this.schemaLog = FileChannel.open(directory.resolve(SCHEMAS_FILE), CREATE, READ, WRITE);
+			this.subjectLog = FileChannel.open(directory.resolve(SUBJECTS_FILE), CREATE, READ, WRITE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		try {
+			loadSchemas();
+			loadSubjects();
+		} catch (IOException e) {
+			try {
+				close();
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * Requires the optional dependency {@code org.apache.avro:avro} to compute the canonical form.
+	 */
+	@Override
+	public Registration register(String subject, String schema) {
+		return register(subject, schema, toParsingForm(schema));
+	}
+	
+	@Override
+	public synchronized Registration register(String subject, String schema, String canonicalSchema) {
+		var batch = new Batch();
+		var registration = batch.register(subject, schema, canonicalSchema);
+		commit(batch);
+		return registration;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * Results without a canonical form require the optional dependency {@code org.apache.avro:avro}.
+	 */
+	@Override
+	public synchronized List<Registration> registerAll(Collection<DbmlAvroTranslator.Result> results) {
+		var batch = new Batch();
+		var registrations = new ArrayList<Registration>(results.size());
+		for (var result : results) {
+			var canonicalForm = result.canonicalForm();
+			var canonicalSchema = canonicalForm != null ? canonicalForm.schema() : toParsingForm(result.schema());
+			registrations.add(batch.register(result.name(), result.schema(), canonicalSchema));
+		}
+		commit(batch);
+		return registrations;
+	}
+	
+	@Override
+	public synchronized Registration getLatest(String subject) {
+		var versions = subjects.get(subject);
+		return versions == null ? null : versions.latest();
+	}
+	
+	@Override
+	public synchronized List<Registration> getVersions(String subject) {
+		var versions = subjects.get(subject);
+		return versions == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(versions.versions));
+	}
+	
+	@Override
+	public synchronized String getSchema(long fingerprint) {
+		var location = locations.get(fingerprint);
+		if (location == null) {
+			return null;
+		}
+		var buffer = ByteBuffer.allocate(location.length());
+		try {
+			while (buffer.hasRemaining()) {
+				if (schemaLog.read(buffer, location.offset() + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of " + SCHEMAS_FILE);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new String(buffer.array(), UTF_8);
+	}
+	
+	@Override
+	public synchronized void close() throws IOException {
+		try (subjectLog) {
+			schemaLog.close();
+		}
+	}
+	
+	/**
+	 * Appends the batch to the logs, the schemas before the versions referring to them,
+	 * and then adds it to the index.
+	 */
+	private synchronized void commit(Batch batch) {
+		try {
+			var schemaOffset = schemaLog.size();
+			append(schemaLog, schemaOffset, batch.schemas.toByteArray());
+			append(subjectLog, subjectLog.size(), batch.versions.toString().getBytes(UTF_8));
+			batch.locations.forEach((fingerprint, location) ->
+					locations.put(fingerprint, new Location(schemaOffset + location.offset(), location.length(), location.digest())));
+			batch.registrations.forEach(registration -> subjects.computeIfAbsent(registration.subject(), s -> new Subject())
+					.add(new Registration(registration.subject(), registration.version(), registration.fingerprint(), false)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private static void append(FileChannel channel, long position, byte[] bytes) throws IOException {
+		if (bytes.length == 0) {
+			return;
+		}
+		var buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+		channel.force(false);
+	}
+	
+	/**
+	 * Indexes the schema log of records {@code <fingerprint> <digest> <length>\n<schema>\n}.
+	 */
+	private void loadSchemas() throws IOException {
+		var bytes = readAll(schemaLog);
+		var position = 0;
+		while (position < bytes.length) {
+			var newline = indexOf(bytes, position);
+			if (newline < 0) {
+				break;
+			}
+			var header = new String(bytes, position, newline - position, UTF_8).split(" ");
+			if (header.length == 2 && position == 0) {
+				throw new IOException(SCHEMAS_FILE + " has been written by a previous version of the store, which addressed schemas by their JSON");
+			}
+			long fingerprint;
+			int length;
+			try {
+				fingerprint = Long.parseUnsignedLong(header[0], 16);
+				length = Integer.parseInt(header[2]);
+			} catch (RuntimeException e) {
+				break;
+			}
+			var start = newline + 1;
+			if (length < 0 || header[1].length() != DIGEST_LENGTH || start + (long) length >= bytes.length || bytes[start + length] != '\n') {
+				break;
+			}
+			locations.put(fingerprint, new Location(start, length, header[1]));
+			position = start + length + 1;
+		}
+		if (position < bytes.length) {
+			schemaLog.truncate(position);
+		}
+	}
+	
+	/**
+	 * Indexes the subject log of records {@code <subject>\t<version>\t<fingerprint>\n}.
+	 */
+	private void loadSubjects() throws IOException {
+		var bytes = readAll(subjectLog);
+		var position = 0;
+		while (position < bytes.length) {
+			var newline = indexOf(bytes, position);
+			if (newline < 0) {
+				break;
+			}
+			var fields = new String(bytes, position, newline - position, UTF_8).split("\t");
+			Registration registration;
+			try {
+				registration = new Registration(fields[0], Integer.parseInt(fields[1]), Long.parseUnsignedLong(fields[2], 16), false);
+			} catch (RuntimeException e) {
+				break;
+			}
+			if (!locations.containsKey(registration.fingerprint())) {
+				break;
+			}
+			subjects.computeIfAbsent(registration.subject(), s -> new Subject()).add(registration);
+			position = newline + 1;
+		}
+		if (position < bytes.length) {
+			subjectLog.truncate(position);
+		}
+	}
+	
+	private static byte[] readAll(FileChannel channel) throws IOException {
+		var buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, buffer.position()) < 0) {
+				break;
+			}
+		}
+		return buffer.array();
+	}
+	
+	private static int indexOf(byte[] bytes, int from) {
+		for (int i = from; i < bytes.length; i++) {
+			if (bytes[i] == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static String toHex(long fingerprint) {
+		return "%016x".formatted(fingerprint);
+	}
+	
+	private static String digest(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String toParsingForm(String schema) {
+		return SchemaNormalization.toParsingForm(new Schema.Parser().parse(schema));
+	}
+	
+	/**
+	 * The position of a schema in the schema log.
+	 *
+	 * @param digest The hex-encoded SHA-256 digest of the canonical form.
+	 */
+	private record Location(
+			long offset,
+			int length,
+			String digest
+	) {
+	}
+	
+	/**
+	 * The versions of a subject.
+	 */
+	private static class Subject {
+		private final List<Registration> versions = new ArrayList<>();
+		private final Map<Long, Registration> byFingerprint = new HashMap<>();
+		
+		void add(Registration registration) {
+			versions.add(registration);
+			byFingerprint.putIfAbsent(registration.fingerprint(), registration);
+		}
+		
+		Registration latest() {
+			return versions.get(versions.size() - 1);
+		}
+	}
+	
+	/**
+	 * The schemas and versions of a registration, which are appended to the logs together.
+	 * Offsets are relative to the start of the batch.
+	 */
+	private class Batch {
+		private final ByteArrayOutputStream schemas = new ByteArrayOutputStream();
+		private final StringBuilder versions = new StringBuilder();
+		private final Map<Long, Location> locations = new HashMap<>();
+		private final List<Registration> registrations = new ArrayList<>();
+		private final Map<String, Subject> subjects = new HashMap<>();
+		
+		Registration register(String subject, String schema, String canonicalSchema) {
+			if (subject.isEmpty() || subject.indexOf('\t') >= 0 || subject.indexOf('\n') >= 0) {
+				throw new IllegalArgumentException("Invalid subject: " + subject);
+			}
+			var canonicalBytes = canonicalSchema.getBytes(UTF_8);
+			var fingerprint = SchemaFingerprint.rabin(canonicalBytes);
+			var digest = digest(canonicalBytes);
+			var stored = locations.get(fingerprint);
+			if (stored == null) {
+				stored = FileSchemaStore.this.locations.get(fingerprint);
+			}
+			if (stored != null && !stored.digest().equals(digest)) {
+				throw new IllegalStateException("Schema of subject %s collides with a stored schema of fingerprint %s".formatted(subject, toHex(fingerprint)));
+			}
+			var existing = find(subject, fingerprint);
+			if (existing != null) {
+				return existing;
+			}
+			if (stored == null) {
+				var bytes = schema.getBytes(UTF_8);
+				var header = (toHex(fingerprint) + ' ' + digest + ' ' + bytes.length + '\n').getBytes(UTF_8);
+				schemas.writeBytes(header);
+				locations.put(fingerprint, new Location(schemas.size(), bytes.length, digest));
+				schemas.writeBytes(bytes);
+				schemas.write('\n');
+			}
+			var latest = latest(subject);
+			var registration = new Registration(subject, latest == null ? 1 : latest.version() + 1, fingerprint, true);
+			registrations.add(registration);
+			subjects.computeIfAbsent(subject, s -> new Subject()).add(registration);
+			versions.append(subject).append('\t').append(registration.version()).append('\t').append(toHex(fingerprint)).append('\n');
+			return registration;
+		}
+		
+		private Registration find(String subject, long fingerprint) {
+			var committed = FileSchemaStore.this.subjects.get(subject);
+			var registration = committed == null ? null : committed.byFingerprint.get(fingerprint);
+			if (registration == null) {
+				var staged = subjects.get(subject);
+				registration = staged == null ? null : staged.byFingerprint.get(fingerprint);
+			}
+			return registration == null ? null : new Registration(subject, registration.version(), fingerprint, false);
+		}
+		
+		private Registration latest(String subject) {
+			var staged = subjects.get(subject);
+			if (staged != null) {
+				return staged.latest();
+			}
+			var committed = FileSchemaStore.this.subjects.get(subject);
+			return committed == null ? null : committed.latest();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.wn.dbml.avro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A translation cache persisting each schema as a file in a directory, so it can be reused across runs.
+ */
+public class FileTranslationCache implements TranslationCache {
+	private final Path directory;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * @param directory The cache directory, which is created if it does not exist
+	 */
+	public FileTranslationCache(Path directory) {
+		try {
+			this.directory = Files.createDirectories(directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public String get(String key) {
+		try {
+			var schema = Files.readString(directory.resolve(key));
+			hits.incrementAndGet();
+			return schema;
+		} catch (NoSuchFileException e) {
+			misses.incrementAndGet();
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void put(String key, String schema) {
+		try {
+			var temp = Files.createTempFile(directory, key, ".tmp");
+			Files.writeString(temp, schema);
+			Files.move(temp, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public long hits() {
+		return hits.get();
+	}
+	
+	@Override
+	public long misses() {
+		return misses.get();
+	}
+}
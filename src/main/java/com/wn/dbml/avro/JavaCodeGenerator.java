@@ -0,0 +1,349 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates Java sources for translated Avro schemas.
+ * A record schema becomes a Java record with a specialized encoder and decoder, which write and read the Avro binary
+ * format through direct {@link org.apache.avro.io.Encoder} and {@link org.apache.avro.io.Decoder} calls,
+ * without reflection or generic dispatch. An enum schema becomes a Java enum.
+ * Requires the optional dependency {@code org.apache.avro:avro}.
+ */
+public class JavaCodeGenerator {
+	private static final String NEWLINE = System.lineSeparator();
+	private static final Set<String> RESERVED_NAMES = Set.of(
+			"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+			"default", "do", "double", "else", "enum", "extends", "false", "final", "finally", "float", "for", "goto",
+			"if", "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "null", "package",
+			"private", "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized",
+			"this", "throw", "throws", "transient", "true", "try", "void", "volatile", "while", "_",
+			// not allowed as record components
+			"clone", "finalize", "getClass", "hashCode", "notify", "notifyAll", "toString", "wait"
+	);
+	private final String packageName;
+	
+	/**
+	 * @param packageName the package of the generated classes, or null for the unnamed package
+	 */
+	public JavaCodeGenerator(String packageName) {
+		this.packageName = packageName;
+	}
+	
+	/**
+	 * Generates the Java source of a record or enum schema.
+	 *
+	 * @throws IllegalArgumentException if the schema contains types without a Java representation
+	 */
+	public JavaSource generate(Schema schema) {
+		return switch (schema.getType()) {
+			case RECORD -> new JavaSource(packageName, escape(schema.getName()), generateRecord(schema));
+			case ENUM -> new JavaSource(packageName, escape(schema.getName()), generateEnum(schema));
+			default -> throw new IllegalArgumentException("Unsupported schema type: " + schema.getType());
+		};
+	}
+	
+	private String generateRecord(Schema schema) {
+		var className = escape(schema.getName());
+		var fields = schema.getFields();
+		var names = fields.stream().map(field -> escape(field.name())).toList();
+		var in = uniqueName("in", names);
+		var out = uniqueName("out", names);
+		var imports = new TreeSet<>(List.of("java.io.IOException", "org.apache.avro.Schema", "org.apache.avro.io.Decoder", "org.apache.avro.io.Encoder"));
+		var helpers = new LinkedHashMap<String, String>();
+		var components = new StringBuilder();
+		var encoder = new StringBuilder();
+		var decoder = new StringBuilder();
+		for (int i = 0; i < fields.size(); i++) {
+			var field = fields.get(i);
+			var name = names.get(i);
+			var fieldSchema = field.schema();
+			var nullBranch = -1;
+			if (fieldSchema.getType() == Schema.Type.UNION) {
+				nullBranch = getNullBranch(field);
+				fieldSchema = fieldSchema.getTypes().get(1 - nullBranch);
+			}
+			var conversion = getConversion(fieldSchema);
+			imports.addAll(conversion.imports());
+			helpers.putAll(conversion.helpers());
+			var type = nullBranch < 0 ? conversion.type() : conversion.boxedType();
+			components.append("\t\t").append(type).append(' ').append(name).append(i < fields.size() - 1 ? "," : "").append(NEWLINE);
+			var write = conversion.write().replace("{out}", out).replace("{value}", "this." + name);
+			var read = conversion.read().replace("{in}", in);
+			if (nullBranch < 0) {
+				encoder.append("\t\t").append(write).append(NEWLINE);
+				decoder.append("\t\tvar ").append(name).append(" = ").append(read).append(';').append(NEWLINE);
+			} else {
+				encoder.append("\t\tif (this.").append(name).append(" == null) {").append(NEWLINE);
+				encoder.append("\t\t\t").append(out).append(".writeIndex(").append(nullBranch).append(");").append(NEWLINE);
+				encoder.append("\t\t\t").append(out).append(".writeNull();").append(NEWLINE);
+				encoder.append("\t\t} else {").append(NEWLINE);
+				encoder.append("\t\t\t").append(out).append(".writeIndex(").append(1 - nullBranch).append(");").append(NEWLINE);
+				encoder.append("\t\t\t").append(write).append(NEWLINE);
+				encoder.append("\t\t}").append(NEWLINE);
+				decoder.append("\t\t").append(type).append(' ').append(name).append(" = null;").append(NEWLINE);
+				decoder.append("\t\tif (").append(in).append(".readIndex() == ").append(1 - nullBranch).append(") {").append(NEWLINE);
+				decoder.append("\t\t\t").append(name).append(" = ").append(read).append(';').append(NEWLINE);
+				decoder.append("\t\t} else {").append(NEWLINE);
+				decoder.append("\t\t\t").append(in).append(".readNull();").append(NEWLINE);
+				decoder.append("\t\t}").append(NEWLINE);
+			}
+		}
+		var sb = new StringBuilder();
+		appendHeader(schema, imports, sb);
+		sb.append("public record ").append(className).append('(').append(NEWLINE);
+		sb.append(components);
+		sb.append(") {").append(NEWLINE);
+		appendSchema(schema, sb);
+		sb.append(NEWLINE);
+		sb.append("\t/**").append(NEWLINE);
+		sb.append("\t * Writes this record in Avro binary format.").append(NEWLINE);
+		sb.append("\t */").append(NEWLINE);
+		sb.append("\tpublic void encode(Encoder ").append(out).append(") throws IOException {").append(NEWLINE);
+		sb.append(encoder);
+		sb.append("\t}").append(NEWLINE);
+		sb.append(NEWLINE);
+		sb.append("\t/**").append(NEWLINE);
+		sb.append("\t * Reads a record in Avro binary format.").append(NEWLINE);
+		sb.append("\t */").append(NEWLINE);
+		sb.append("\tpublic static ").append(className).append(" decode(Decoder ").append(in).append(") throws IOException {").append(NEWLINE);
+		sb.append(decoder);
+		sb.append("\t\treturn new ").append(className).append('(').append(String.join(", ", names)).append(");").append(NEWLINE);
+		sb.append("\t}").append(NEWLINE);
+		helpers.values().forEach(helper -> sb.append(NEWLINE).append(helper));
+		sb.append('}').append(NEWLINE);
+		return sb.toString();
+	}
+	
+	private int getNullBranch(Schema.Field field) {
+		var types = field.schema().getTypes();
+		if (types.size() == 2) {
+			for (int i = 0; i < 2; i++) {
+				if (types.get(i).getType() == Schema.Type.NULL && types.get(1 - i).getType() != Schema.Type.NULL) {
+					return i;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unsupported union of field %s: %s".formatted(field.name(), field.schema()));
+	}
+	
+	private String generateEnum(Schema schema) {
+		var className = escape(schema.getName());
+		var sb = new StringBuilder();
+		appendHeader(schema, new TreeSet<>(Set.of("org.apache.avro.Schema")), sb);
+		sb.append("public enum ").append(className).append(" {").append(NEWLINE);
+		var symbols = schema.getEnumSymbols();
+		for (int i = 0; i < symbols.size(); i++) {
+			sb.append('\t').append(escape(symbols.get(i))).append(i < symbols.size() - 1 ? "," : ";").append(NEWLINE);
+		}
+		sb.append(NEWLINE);
+		appendSchema(schema, sb);
+		sb.append("\tprivate static final ").append(className).append("[] VALUES$ = values();").append(NEWLINE);
+		sb.append(NEWLINE);
+		sb.append("\t/**").append(NEWLINE);
+		sb.append("\t * Returns the symbol at the position in the Avro schema.").append(NEWLINE);
+		sb.append("\t */").append(NEWLINE);
+		sb.append("\tpublic static ").append(className).append(" ofOrdinal(int ordinal) {").append(NEWLINE);
+		sb.append("\t\treturn VALUES$[ordinal];").append(NEWLINE);
+		sb.append("\t}").append(NEWLINE);
+		sb.append('}').append(NEWLINE);
+		return sb.toString();
+	}
+	
+	private void appendHeader(Schema schema, Set<String> imports, StringBuilder sb) {
+		if (packageName != null) {
+			sb.append("package ").append(packageName).append(';').append(NEWLINE).append(NEWLINE);
+		}
+		var javaImports = imports.stream().filter(i -> i.startsWith("java.")).toList();
+		var otherImports = imports.stream().filter(i -> !i.startsWith("java.")).toList();
+		otherImports.forEach(i -> sb.append("import ").append(i).append(';').append(NEWLINE));
+		if (!otherImports.isEmpty()) sb.append(NEWLINE);
+		javaImports.forEach(i -> sb.append("import ").append(i).append(';').append(NEWLINE));
+		if (!javaImports.isEmpty()) sb.append(NEWLINE);
+		sb.append("/**").append(NEWLINE);
+		if (schema.getDoc() != null) {
+			sb.append(" * ").append(schema.getDoc().replace("*/", "*&#47;")).append(NEWLINE).append(" * <p>").append(NEWLINE);
+		}
+		sb.append(" * Generated from the Avro schema {@code ").append(schema.getFullName()).append("}.").append(NEWLINE);
+		sb.append(" */").append(NEWLINE);
+	}
+	
+	private void appendSchema(Schema schema, StringBuilder sb) {
+		sb.append("\tpublic static final Schema SCHEMA$ = new Schema.Parser().parse(\"")
+				.append(toJavaString(schema.toString())).append("\");").append(NEWLINE);
+	}
+	
+	private Conversion getConversion(Schema schema) {
+		var logicalType = schema.getLogicalType();
+		if (logicalType instanceof LogicalTypes.Decimal decimal && schema.getType() == Schema.Type.BYTES) {
+			var scale = decimal.getScale();
+			return new Conversion("BigDecimal", "{out}.writeBytes(toUnscaledBytes({value}, " + scale + "));", "fromUnscaledBytes({in}, " + scale + ")",
+					List.of("java.math.BigDecimal", "java.math.BigInteger", "java.math.RoundingMode", "java.nio.ByteBuffer"), Helpers.DECIMAL);
+		}
+		if (logicalType instanceof LogicalTypes.Decimal decimal && schema.getType() == Schema.Type.FIXED) {
+			var scale = decimal.getScale();
+			var size = schema.getFixedSize();
+			return new Conversion("BigDecimal", "{out}.writeFixed(toUnscaledFixed({value}, " + scale + ", " + size + "));", "fromUnscaledFixed({in}, " + scale + ", " + size + ")",
+					List.of("java.math.BigDecimal", "java.math.BigInteger", "java.math.RoundingMode"), Helpers.FIXED_DECIMAL);
+		}
+		if (logicalType != null) {
+			var conversion = switch (logicalType.getName()) {
+				case "uuid" -> new Conversion("UUID", "{out}.writeString({value}.toString());", "UUID.fromString({in}.readString())", List.of("java.util.UUID"), Map.of());
+				case "date" -> new Conversion("LocalDate", "{out}.writeInt(Math.toIntExact({value}.toEpochDay()));", "LocalDate.ofEpochDay({in}.readInt())", List.of("java.time.LocalDate"), Map.of());
+				case "time-millis" -> new Conversion("LocalTime", "{out}.writeInt((int) ({value}.toNanoOfDay() / 1_000_000));", "LocalTime.ofNanoOfDay({in}.readInt() * 1_000_000L)", List.of("java.time.LocalTime"), Map.of());
+				case "time-micros" -> new Conversion("LocalTime", "{out}.writeLong({value}.toNanoOfDay() / 1_000);", "LocalTime.ofNanoOfDay({in}.readLong() * 1_000L)", List.of("java.time.LocalTime"), Map.of());
+				case "timestamp-millis" -> new Conversion("Instant", "{out}.writeLong({value}.toEpochMilli());", "Instant.ofEpochMilli({in}.readLong())", List.of("java.time.Instant"), Map.of());
+				case "timestamp-micros" -> new Conversion("Instant", "{out}.writeLong(toEpochMicros({value}));", "ofEpochMicros({in}.readLong())", List.of("java.time.Instant"), Helpers.MICROS);
+				case "local-timestamp-millis" -> new Conversion("LocalDateTime", "{out}.writeLong({value}.toInstant(ZoneOffset.UTC).toEpochMilli());", "LocalDateTime.ofInstant(Instant.ofEpochMilli({in}.readLong()), ZoneOffset.UTC)",
+						List.of("java.time.Instant", "java.time.LocalDateTime", "java.time.ZoneOffset"), Map.of());
+				case "local-timestamp-micros" -> new Conversion("LocalDateTime", "{out}.writeLong(toEpochMicros({value}.toInstant(ZoneOffset.UTC)));", "LocalDateTime.ofInstant(ofEpochMicros({in}.readLong()), ZoneOffset.UTC)",
+						List.of("java.time.Instant", "java.time.LocalDateTime", "java.time.ZoneOffset"), Helpers.MICROS);
+				default -> null;
+			};
+			if (conversion != null) return conversion;
+		}
+		return switch (schema.getType()) {
+			case BOOLEAN -> new Conversion("boolean", "Boolean", "{out}.writeBoolean({value});", "{in}.readBoolean()", List.of(), Map.of());
+			case INT -> new Conversion("int", "Integer", "{out}.writeInt({value});", "{in}.readInt()", List.of(), Map.of());
+			case LONG -> new Conversion("long", "Long", "{out}.writeLong({value});", "{in}.readLong()", List.of(), Map.of());
+			case FLOAT -> new Conversion("float", "Float", "{out}.writeFloat({value});", "{in}.readFloat()", List.of(), Map.of());
+			case DOUBLE -> new Conversion("double", "Double", "{out}.writeDouble({value});", "{in}.readDouble()", List.of(), Map.of());
+			case STRING -> new Conversion("String", "{out}.writeString({value});", "{in}.readString()", List.of(), Map.of());
+			case BYTES -> new Conversion("ByteBuffer", "{out}.writeBytes({value});", "{in}.readBytes(null)", List.of("java.nio.ByteBuffer"), Map.of());
+			case FIXED -> new Conversion("byte[]", "{out}.writeFixed({value});", "readFixed({in}, " + schema.getFixedSize() + ")", List.of(), Helpers.FIXED);
+			case ENUM -> {
+				var enumName = escape(schema.getName());
+				yield new Conversion(enumName, "{out}.writeEnum({value}.ordinal());", enumName + ".ofOrdinal({in}.readEnum())", List.of(), Map.of());
+			}
+			default -> throw new IllegalArgumentException("Unsupported type: " + schema);
+		};
+	}
+	
+	private static String uniqueName(String name, List<String> names) {
+		var taken = new HashSet<>(names);
+		while (taken.contains(name)) {
+			name += '_';
+		}
+		return name;
+	}
+	
+	private static String escape(String name) {
+		return RESERVED_NAMES.contains(name) ? name + '_' : name;
+	}
+	
+	private static String toJavaString(String s) {
+		var sb = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			var c = s.charAt(i);
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				case '\t' -> sb.append("\\t");
+				default -> sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * A generated Java source file.
+	 *
+	 * @param packageName The package of the class, or null.
+	 * @param className   The simple name of the class.
+	 * @param source      The Java source code.
+	 */
+	public record JavaSource(
+			String packageName,
+			String className,
+			String source
+	) {
+		/**
+		 * Returns the path of the source file relative to a source root.
+		 */
+		public Path path() {
+			var fileName = className + ".java";
+			return packageName == null ? Path.of(fileName) : Path.of(packageName.replace('.', '/'), fileName);
+		}
+	}
+	
+	/**
+	 * The Java representation of an Avro type.
+	 *
+	 * @param type      The Java type of a non-null value.
+	 * @param boxedType The Java type of a nullable value.
+	 * @param write     The statement writing {value} to the encoder {out}.
+	 * @param read      The expression reading a value from the decoder {in}.
+	 * @param imports   The classes to import.
+	 * @param helpers   The helper methods used by the statement and expression, by name.
+	 */
+	private record Conversion(
+			String type,
+			String boxedType,
+			String write,
+			String read,
+			List<String> imports,
+			Map<String, String> helpers
+	) {
+		Conversion(String type, String write, String read, List<String> imports, Map<String, String> helpers) {
+			this(type, type, write, read, imports, helpers);
+		}
+	}
+	
+	private static final class Helpers {
+		static final Map<String, String> DECIMAL = Map.of("decimal", String.join(NEWLINE,
+				"\tprivate static ByteBuffer toUnscaledBytes(BigDecimal value, int scale) {",
+				"\t\treturn ByteBuffer.wrap(value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().toByteArray());",
+				"\t}",
+				"",
+				"\tprivate static BigDecimal fromUnscaledBytes(Decoder in, int scale) throws IOException {",
+				"\t\tvar buffer = in.readBytes(null);",
+				"\t\tvar bytes = new byte[buffer.remaining()];",
+				"\t\tbuffer.get(bytes);",
+				"\t\treturn new BigDecimal(new BigInteger(bytes), scale);",
+				"\t}",
+				""));
+		static final Map<String, String> FIXED_DECIMAL = Map.of("fixedDecimal", String.join(NEWLINE,
+				"\tprivate static byte[] toUnscaledFixed(BigDecimal value, int scale, int size) {",
+				"\t\tvar bytes = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().toByteArray();",
+				"\t\tif (bytes.length > size) throw new ArithmeticException(\"Decimal exceeds \" + size + \" bytes: \" + value);",
+				"\t\tvar fixed = new byte[size];",
+				"\t\tvar padding = (byte) (bytes[0] < 0 ? -1 : 0);",
+				"\t\tfor (int i = 0; i < size - bytes.length; i++) fixed[i] = padding;",
+				"\t\tSystem.arraycopy(bytes, 0, fixed, size - bytes.length, bytes.length);",
+				"\t\treturn fixed;",
+				"\t}",
+				"",
+				"\tprivate static BigDecimal fromUnscaledFixed(Decoder in, int scale, int size) throws IOException {",
+				"\t\tvar bytes = new byte[size];",
+				"\t\tin.readFixed(bytes);",
+				"\t\treturn new BigDecimal(new BigInteger(bytes), scale);",
+				"\t}",
+				""));
+		static final Map<String, String> MICROS = Map.of("micros", String.join(NEWLINE,
+				"\tprivate static long toEpochMicros(Instant value) {",
+				"\t\treturn Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L), value.getNano() / 1_000);",
+				"\t}",
+				"",
+				"\tprivate static Instant ofEpochMicros(long micros) {",
+				"\t\treturn Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);",
+				"\t}",
+				""));
+		static final Map<String, String> FIXED = Map.of("fixed", String.join(NEWLINE,
+				"\tprivate static byte[] readFixed(Decoder in, int size) throws IOException {",
+				"\t\tvar bytes = new byte[size];",
+				"\t\tin.readFixed(bytes);",
+				"\t\treturn bytes;",
+				"\t}",
+				""));
+	}
+}
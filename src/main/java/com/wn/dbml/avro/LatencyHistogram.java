@@ -0,0 +1,59 @@
+package com.wn.dbml.avro;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies with fixed buckets from 100 µs to 10 s.
+ */
+class LatencyHistogram {
+	/**
+	 * The inclusive upper bounds of the buckets in nanoseconds.
+	 */
+	private static final long[] BOUNDS = {
+			100_000L, 250_000L, 500_000L,
+			1_000_000L, 2_500_000L, 5_000_000L,
+			10_000_000L, 25_000_000L, 50_000_000L,
+			100_000_000L, 250_000_000L, 500_000_000L,
+			1_000_000_000L, 2_500_000_000L, 5_000_000_000L,
+			10_000_000_000L
+	};
+	private final LongAdder[] counts = new LongAdder[BOUNDS.length + 1];
+	private final LongAdder sumNanos = new LongAdder();
+	
+	LatencyHistogram() {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = new LongAdder();
+		}
+	}
+	
+	void record(long nanos) {
+		var i = 0;
+		while (i < BOUNDS.length && nanos > BOUNDS[i]) {
+			i++;
+		}
+		counts[i].increment();
+		sumNanos.add(nanos);
+	}
+	
+	/**
+	 * Appends the histogram in the Prometheus text format, with cumulative buckets in seconds.
+	 *
+	 * @param name   the metric name
+	 * @param labels the labels of all samples, e.g. {@code endpoint="translate"}
+	 */
+	void appendTo(StringBuilder sb, String name, String labels) {
+		var cumulative = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i].sum();
+			var le = i < BOUNDS.length ? toSeconds(BOUNDS[i]) : "+Inf";
+			sb.append(name).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+		}
+		sb.append(name).append("_sum{").append(labels).append("} ").append(toSeconds(sumNanos.sum())).append('\n');
+		sb.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+	}
+	
+	private static String toSeconds(long nanos) {
+		return String.format(Locale.ROOT, "%.9f", nanos / 1e9).replaceFirst("\\.?0+$", "");
+	}
+}
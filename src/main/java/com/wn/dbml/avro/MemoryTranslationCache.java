@@ -0,0 +1,54 @@
+package com.wn.dbml.avro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory translation cache, which evicts the least recently used schema when it is full.
+ */
+public class MemoryTranslationCache implements TranslationCache {
+	private final Map<String, String> schemas;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * @param maxSize The maximum number of cached schemas
+	 */
+	public MemoryTranslationCache(int maxSize) {
+		if (maxSize <= 0) throw new IllegalArgumentException("Size must be a positive integer");
+		this.schemas = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	@Override
+	public String get(String key) {
+		String schema;
+		synchronized (schemas) {
+			schema = schemas.get(key);
+		}
+		(schema == null ? misses : hits).incrementAndGet();
+		return schema;
+	}
+	
+	@Override
+	public void put(String key, String schema) {
+		synchronized (schemas) {
+			schemas.put(key, schema);
+		}
+	}
+	
+	@Override
+	public long hits() {
+		return hits.get();
+	}
+	
+	@Override
+	public long misses() {
+		return misses.get();
+	}
+}
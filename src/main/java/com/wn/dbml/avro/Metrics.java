@@ -0,0 +1,194 @@
+package com.wn.dbml.avro;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects the metrics of a single translation and reports them to the listener and as JFR events.
+ * It only exists while a listener is set or any of the {@link TranslationEvents} is enabled.
+ */
+class Metrics {
+	private static final TranslationListener NO_LISTENER = new TranslationListener() {
+	};
+	private final TranslationListener listener;
+	private final TranslationEvents.Translation event = new TranslationEvents.Translation();
+	private final LongAdder tables = new LongAdder();
+	private final LongAdder columns = new LongAdder();
+	private final LongAdder enums = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder validateNanos = new LongAdder();
+	private final LongAdder mapTypesNanos = new LongAdder();
+	private final LongAdder emitNanos = new LongAdder();
+	private long parseNanos;
+	
+	private Metrics(TranslationListener listener) {
+		this.listener = listener;
+		event.begin();
+	}
+	
+	/**
+	 * Starts collecting the metrics of a translation.
+	 *
+	 * @param listener the listener or null
+	 * @return the metrics or null, if they would not be reported
+	 */
+	static Metrics start(TranslationListener listener) {
+		if (listener == null && !TranslationEvents.isEnabled()) {
+			return null;
+		}
+		return new Metrics(listener == null ? NO_LISTENER : listener);
+	}
+	
+	/**
+	 * Parses the DBML, measuring the time with the metrics, if any.
+	 */
+	static <T> T parse(Supplier<T> parser, Metrics metrics) {
+		if (metrics == null) {
+			return parser.get();
+		}
+		var event = new TranslationEvents.Parse();
+		event.begin();
+		var parseStart = System.nanoTime();
+		var parsed = parser.get();
+		metrics.parseNanos = System.nanoTime() - parseStart;
+		event.commit();
+		return parsed;
+	}
+	
+	/**
+	 * Starts measuring the translation of a table, an enum or the validation preceding them.
+	 */
+	Timer startTimer() {
+		return new Timer();
+	}
+	
+	void validated(Timer timer) {
+		validateNanos.add(timer.validateNanos);
+	}
+	
+	void tableTranslated(Timer timer, String name, int columns, long bytes) {
+		var totalNanos = System.nanoTime() - timer.start;
+		var emitNanos = totalNanos - timer.validateNanos - timer.mapTypesNanos;
+		this.tables.increment();
+		this.columns.add(columns);
+		this.bytes.add(bytes);
+		this.validateNanos.add(timer.validateNanos);
+		this.mapTypesNanos.add(timer.mapTypesNanos);
+		this.emitNanos.add(emitNanos);
+		var tableEvent = timer.event;
+		if (tableEvent.shouldCommit()) {
+			tableEvent.table = name;
+			tableEvent.columns = columns;
+			tableEvent.bytes = bytes;
+			tableEvent.validateNanos = timer.validateNanos;
+			tableEvent.mapTypesNanos = timer.mapTypesNanos;
+			tableEvent.commit();
+		}
+		listener.tableTranslated(new TranslationListener.TableMetrics(name, columns, bytes, timer.validateNanos, timer.mapTypesNanos, emitNanos));
+	}
+	
+	void enumTranslated(Timer timer, long bytes) {
+		this.enums.increment();
+		this.bytes.add(bytes);
+		this.emitNanos.add(System.nanoTime() - timer.start);
+	}
+	
+	void completed() {
+		var metrics = new TranslationListener.TranslationMetrics(tables.intValue(), columns.intValue(), enums.intValue(), bytes.sum(),
+				parseNanos, validateNanos.sum(), mapTypesNanos.sum(), emitNanos.sum());
+		if (event.shouldCommit()) {
+			event.tables = metrics.tables();
+			event.columns = metrics.columns();
+			event.enums = metrics.enums();
+			event.bytes = metrics.bytes();
+			event.parseNanos = metrics.parseNanos();
+			event.validateNanos = metrics.validateNanos();
+			event.mapTypesNanos = metrics.mapTypesNanos();
+			event.emitNanos = metrics.emitNanos();
+			event.commit();
+		}
+		listener.translationCompleted(metrics);
+	}
+	
+	/**
+	 * Returns the number of bytes of the UTF-8 encoding of the characters.
+	 */
+	static long utf8Length(CharSequence csq) {
+		return utf8Length(csq, 0, csq.length());
+	}
+	
+	private static long utf8Length(CharSequence csq, int start, int end) {
+		long length = 0;
+		for (int i = start; i < end; i++) {
+			length += utf8Length(csq.charAt(i));
+		}
+		return length;
+	}
+	
+	/**
+	 * Returns the length of the UTF-8 encoding of a char, counting each half of a surrogate pair as 2 bytes.
+	 */
+	private static int utf8Length(char c) {
+		if (c < 0x80) return 1;
+		if (c < 0x800 || Character.isSurrogate(c)) return 2;
+		return 3;
+	}
+	
+	/**
+	 * Measures the translation of a single table or enum on a single thread.
+	 */
+	static class Timer {
+		private final long start = System.nanoTime();
+		private final TranslationEvents.Table event = new TranslationEvents.Table();
+		private long validateNanos;
+		private long mapTypesNanos;
+		private long bytes;
+		
+		Timer() {
+			event.begin();
+		}
+		
+		void addValidateNanos(long nanos) {
+			validateNanos += nanos;
+		}
+		
+		void addMapTypesNanos(long nanos) {
+			mapTypesNanos += nanos;
+		}
+		
+		long getBytes() {
+			return bytes;
+		}
+		
+		/**
+		 * Counts the bytes of the UTF-8 encoding of the characters appended to the target.
+		 */
+		Appendable count(Appendable out) {
+			return new Appendable() {
+				@Override
+				public Appendable append(CharSequence csq) throws IOException {
+					var s = String.valueOf(csq);
+					bytes += utf8Length(s);
+					out.append(s);
+					return this;
+				}
+				
+				@Override
+				public Appendable append(CharSequence csq, int start, int end) throws IOException {
+					bytes += utf8Length(csq, start, end);
+					out.append(csq, start, end);
+					return this;
+				}
+				
+				@Override
+				public Appendable append(char c) throws IOException {
+					bytes += utf8Length(c);
+					out.append(c);
+					return this;
+				}
+			};
+		}
+
+	}
+}
@@ -1,14 +1,26 @@
 package com.wn.dbml.avro;
 
-import java.util.regex.Pattern;
-
 /**
  * Validates a name.
  */
 public class NameValidator {
-	private static final Pattern PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
-	
 	public boolean isValid(String name) {
-		return PATTERN.matcher(name).matches();
+		if (name.isEmpty() || !isStart(name.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			if (!isPart(name.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static boolean isStart(char c) {
+		return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '_';
+	}
+	
+	private static boolean isPart(char c) {
+		return isStart(c) || c >= '0' && c <= '9';
 	}
 }
@@ -0,0 +1,94 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves column types to the named types of a database, i.e. its enums.
+ * The resolution is shared by all records, while each record tracks the named types it has already defined,
+ * including fixed types.
+ */
+class NamedTypes {
+	private final Map<String, Enum> enums = new HashMap<>();
+	
+	/**
+	 * @param enums the enums of all schemas of the database, by schema name
+	 */
+	NamedTypes(Map<String, List<Enum>> enums) {
+		var names = new HashMap<String, String>();
+		enums.forEach((schemaName, schemaEnums) -> schemaEnums.forEach(anEnum -> {
+			var name = anEnum.getName();
+			var previousSchemaName = names.putIfAbsent(name, schemaName);
+			if (previousSchemaName != null) {
+				throw new IllegalArgumentException("Duplicate name: %s in schemas %s and %s"
+						.formatted(name, previousSchemaName, schemaName));
+			}
+			this.enums.put(name, anEnum);
+			this.enums.put(schemaName + '.' + name, anEnum);
+		}));
+	}
+	
+	/**
+	 * Collects the named types of all schemas of the database.
+	 */
+	static NamedTypes of(Database database) {
+		var enums = new LinkedHashMap<String, List<Enum>>();
+		database.getSchemas().forEach(schema -> enums.put(schema.getName(), List.copyOf(schema.getEnums())));
+		return new NamedTypes(enums);
+	}
+	
+	/**
+	 * Returns the enum of a column type, which is either the enum name or the schema-qualified enum name.
+	 *
+	 * @return the enum or null, if the column type is not an enum
+	 */
+	Enum resolve(String columnType) {
+		return enums.get(columnType);
+	}
+	
+	/**
+	 * Creates a scope for the named types defined by a single record.
+	 */
+	Scope newScope() {
+		return new Scope();
+	}
+	
+	static class Scope {
+		private Set<Enum> defined;
+		private Set<String> definedFixed;
+		
+		/**
+		 * Defines a named type within the record.
+		 *
+		 * @return true, if it is the first definition and the type has to be written in full
+		 */
+		boolean define(Enum anEnum) {
+			if (defined == null) {
+				defined = Collections.newSetFromMap(new IdentityHashMap<>());
+			}
+			return defined.add(anEnum);
+		}
+		
+		/**
+		 * Defines a fixed type within the record.
+		 *
+		 * @param name the name of the fixed type
+		 * @return true, if it is the first definition and the type has to be written in full
+		 */
+		boolean defineFixed(String name) {
+			if (definedFixed == null) {
+				definedFixed = new HashSet<>();
+			}
+			return definedFixed.add(name);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Parses large DBML models in parallel by splitting them into chunks of top-level blocks.
+ * Only models consisting of tables and enums are split.
+ * <p>
+ * The whole model is parsed sequentially instead, if it contains any other block, e.g. a reference or a table group,
+ * whose validation depends on tables of other chunks,
+ * if a chunk cannot be parsed on its own, e.g. because of a syntax error or an inline reference to a table of
+ * another chunk, or if a table or enum is defined in more than one chunk.
+ * Thereby, parsing errors are reported exactly as by the sequential parser, including their line numbers.
+ */
+class ParallelParser {
+	/**
+	 * The minimum number of characters of a chunk.
+	 */
+	static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+	private final Executor executor;
+	private final int chunkSize;
+	
+	ParallelParser(Executor executor) {
+		this(executor, DEFAULT_CHUNK_SIZE);
+	}
+	
+	ParallelParser(Executor executor, int chunkSize) {
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+	
+	ParsedDbml parse(String dbml) {
+		var chunks = dbml.length() < 2L * chunkSize ? null : split(dbml);
+		if (chunks == null || chunks.size() < 2) {
+			return ParsedDbml.of(DbmlParser.parse(dbml));
+		}
+		var futures = new ArrayList<CompletableFuture<Database>>(chunks.size());
+		for (var chunk : chunks) {
+			futures.add(CompletableFuture.supplyAsync(() -> DbmlParser.parse(chunk), executor));
+		}
+		var databases = new ArrayList<Database>(chunks.size());
+		try {
+			for (var future : futures) {
+				databases.add(future.join());
+			}
+		} catch (CompletionException e) {
+			return ParsedDbml.of(DbmlParser.parse(dbml));
+		}
+		var parsed = ParsedDbml.merge(databases);
+		return parsed != null ? parsed : ParsedDbml.of(DbmlParser.parse(dbml));
+	}
+	
+	/**
+	 * Splits the model into chunks of consecutive tables and enums.
+	 *
+	 * @return the chunks or null, if the model cannot be split
+	 */
+	List<String> split(String dbml) {
+		var chunks = new ArrayList<String>();
+		var chunk = new StringBuilder(chunkSize + chunkSize / 8);
+		var length = dbml.length();
+		var i = skipBlank(dbml, 0);
+		while (i < length) {
+			if (i < 0) {
+				return null;
+			}
+			var keyword = keyword(dbml, i);
+			if (!(keyword.equalsIgnoreCase("Table") || keyword.equalsIgnoreCase("Enum"))) {
+				return null;
+			}
+			var end = endOfBlock(dbml, i);
+			if (end < 0) {
+				return null;
+			}
+			chunk.append(dbml, i, end).append('\n');
+			if (chunk.length() >= chunkSize) {
+				chunks.add(chunk.toString());
+				chunk.setLength(0);
+			}
+			i = skipBlank(dbml, end);
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk.toString());
+		}
+		return chunks;
+	}
+	
+	private static String keyword(String dbml, int start) {
+		var end = start;
+		while (end < dbml.length() && Character.isLetter(dbml.charAt(end))) {
+			end++;
+		}
+		return dbml.substring(start, end);
+	}
+	
+	/**
+	 * Skips whitespace and comments.
+	 *
+	 * @return the index of the next block or -1, if a block comment is not terminated
+	 */
+	private static int skipBlank(String dbml, int i) {
+		var length = dbml.length();
+		while (i < length) {
+			var c = dbml.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (dbml.startsWith("//", i) || dbml.startsWith("/*", i)) {
+				i = skipComment(dbml, i);
+				if (i < 0) {
+					return -1;
+				}
+			} else {
+				break;
+			}
+		}
+		return i;
+	}
+	
+	private static int skipComment(String dbml, int i) {
+		if (dbml.charAt(i + 1) == '/') {
+			var end = dbml.indexOf('\n', i);
+			return end < 0 ? dbml.length() : end;
+		}
+		var end = dbml.indexOf("*/", i + 2);
+		return end < 0 ? -1 : end + 2;
+	}
+	
+	/**
+	 * Returns the end of the top-level block starting at the index, i.e. the index after its closing brace.
+	 *
+	 * @return the end or -1, if the block is not terminated
+	 */
+	private static int endOfBlock(String dbml, int i) {
+		var length = dbml.length();
+		var depth = 0;
+		while (i < length) {
+			var c = dbml.charAt(i);
+			switch (c) {
+				case '{' -> depth++;
+				case '}' -> {
+					if (--depth == 0) {
+						return i + 1;
+					}
+					if (depth < 0) {
+						return -1;
+					}
+				}
+				case '\'', '"', '`' -> {
+					i = skipString(dbml, i);
+					if (i < 0) {
+						return -1;
+					}
+					continue;
+				}
+				case '/' -> {
+					if (i + 1 < length && (dbml.charAt(i + 1) == '/' || dbml.charAt(i + 1) == '*')) {
+						i = skipComment(dbml, i);
+						if (i < 0) {
+							return -1;
+						}
+						continue;
+					}
+				}
+				default -> {
+				}
+			}
+			i++;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Skips a quoted string, which may be a multi-line string in triple quotes.
+	 *
+	 * @return the index after the closing quote or -1, if the string is not terminated
+	 */
+	private static int skipString(String dbml, int i) {
+		var quote = dbml.charAt(i);
+		if (quote == '\'' && dbml.startsWith("'''", i)) {
+			var end = i + 3;
+			while ((end = dbml.indexOf("'''", end)) >= 0 && dbml.charAt(end - 1) == '\\') {
+				end++;
+			}
+			return end < 0 ? -1 : end + 3;
+		}
+		var length = dbml.length();
+		for (var j = i + 1; j < length; j++) {
+			var c = dbml.charAt(j);
+			if (c == '\\') {
+				j++;
+			} else if (c == quote) {
+				return j + 1;
+			} else if (c == '\n' && quote != '`') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+}
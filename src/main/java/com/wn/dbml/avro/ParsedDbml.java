@@ -0,0 +1,71 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Table;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tables and enums of one or more parsed DBML models, in the order of their schemas.
+ *
+ * @param tables The tables of all schemas.
+ * @param enums  The enums of all schemas, by schema name.
+ */
+record ParsedDbml(
+		List<Table> tables,
+		Map<String, List<Enum>> enums
+) {
+	/**
+	 * Collects the tables and enums of a database.
+	 */
+	static ParsedDbml of(Database database) {
+		return merge(List.of(database));
+	}
+	
+	/**
+	 * Merges the tables and enums of the databases, which have been parsed from consecutive parts of a model.
+	 * The schemas are ordered by their first occurrence and their tables and enums by the order of the databases,
+	 * as if the parts had been parsed as a whole.
+	 *
+	 * @return the merged model or null, if a table or enum is defined in more than one database
+	 */
+	static ParsedDbml merge(List<Database> databases) {
+		var tablesBySchema = new LinkedHashMap<String, List<Table>>();
+		var enumsBySchema = new LinkedHashMap<String, List<Enum>>();
+		var names = new HashSet<String>();
+		for (var database : databases) {
+			for (var schema : database.getSchemas()) {
+				var schemaName = schema.getName();
+				var tables = tablesBySchema.computeIfAbsent(schemaName, k -> new ArrayList<>());
+				for (var table : schema.getTables()) {
+					if (databases.size() > 1 && !names.add("Table " + schemaName + '.' + table.getName())) {
+						return null;
+					}
+					tables.add(table);
+				}
+				var enums = enumsBySchema.computeIfAbsent(schemaName, k -> new ArrayList<>());
+				for (var anEnum : schema.getEnums()) {
+					if (databases.size() > 1 && !names.add("Enum " + schemaName + '.' + anEnum.getName())) {
+						return null;
+					}
+					enums.add(anEnum);
+				}
+			}
+		}
+		var tables = new ArrayList<Table>();
+		tablesBySchema.values().forEach(tables::addAll);
+		return new ParsedDbml(tables, enumsBySchema);
+	}
+	
+	/**
+	 * Resolves column types to the enums of all schemas.
+	 */
+	NamedTypes namedTypes() {
+		return new NamedTypes(enums);
+	}
+}
@@ -0,0 +1,382 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.model.Table;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+
+/**
+ * Exports the rows of a JDBC result set as Avro records of a translated table schema.
+ * The accessor and encoding of each column is resolved once from the schema, including its logical type,
+ * and each export reuses its buffers for all rows.
+ * Requires the optional dependency {@code org.apache.avro:avro}.
+ */
+public class ResultSetExporter {
+	/**
+	 * Creates encoders collecting 64 KiB of encoded records before writing them to an output stream.
+	 */
+	private static final EncoderFactory ENCODER_FACTORY = new EncoderFactory().configureBufferSize(64 * 1024);
+	private final Schema schema;
+	private final String[] columnNames;
+	private final FieldEncoder[] fieldEncoders;
+	
+	/**
+	 * @param table  the table of the result set
+	 * @param schema the record schema translated from the table
+	 */
+	public ResultSetExporter(Table table, Schema schema) {
+		if (schema.getType() != Schema.Type.RECORD || !schema.getName().equals(table.getName())) {
+			throw new IllegalArgumentException("Schema %s is not the record of table %s".formatted(schema.getFullName(), table.getName()));
+		}
+		var columns = table.getColumns();
+		if (columns.size() != schema.getFields().size()) {
+			throw new IllegalArgumentException("Schema %s does not match the columns of table %s".formatted(schema.getFullName(), table.getName()));
+		}
+		this.schema = schema;
+		this.columnNames = new String[columns.size()];
+		this.fieldEncoders = new FieldEncoder[columns.size()];
+		int i = 0;
+		for (var column : columns) {
+			var field = schema.getField(column.getName());
+			if (field == null || field.pos() != i) {
+				throw new IllegalArgumentException("Schema %s does not match column %s of table %s".formatted(schema.getFullName(), column.getName(), table.getName()));
+			}
+			columnNames[i] = column.getName();
+			fieldEncoders[i] = toFieldEncoder(field);
+			i++;
+		}
+	}
+	
+	/**
+	 * Returns the schema of the exported records.
+	 */
+	public Schema getSchema() {
+		return schema;
+	}
+	
+	/**
+	 * Writes the remaining rows of the result set as consecutive Avro binary records.
+	 *
+	 * @return the number of records written
+	 */
+	public long export(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+		var encoder = ENCODER_FACTORY.binaryEncoder(out, null);
+		var count = export(resultSet, encoder, null);
+		encoder.flush();
+		return count;
+	}
+	
+	/**
+	 * Appends the remaining rows of the result set to an Avro object container file.
+	 * The writer must have been created with the schema of this exporter.
+	 *
+	 * @return the number of records appended
+	 */
+	public long export(ResultSet resultSet, DataFileWriter<?> writer) throws SQLException, IOException {
+		var buffer = new RecordBuffer();
+		var encoder = ENCODER_FACTORY.directBinaryEncoder(buffer, null);
+		return export(resultSet, encoder, () -> {
+			writer.appendEncoded(buffer.toByteBuffer());
+			buffer.reset();
+		});
+	}
+	
+	/**
+	 * Encodes the remaining rows of the result set, calling the sink after each row.
+	 */
+	long export(ResultSet resultSet, Encoder encoder, RecordSink sink) throws SQLException, IOException {
+		var columnIndexes = new int[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnIndexes[i] = resultSet.findColumn(columnNames[i]);
+		}
+		long count = 0;
+		while (resultSet.next()) {
+			for (int i = 0; i < fieldEncoders.length; i++) {
+				fieldEncoders[i].encode(resultSet, columnIndexes[i], encoder);
+			}
+			if (sink != null) {
+				sink.recordEncoded();
+			}
+			count++;
+		}
+		return count;
+	}
+	
+	private static FieldEncoder toFieldEncoder(Schema.Field field) {
+		var fieldSchema = field.schema();
+		var nullBranch = -1;
+		if (fieldSchema.getType() == Schema.Type.UNION) {
+			var types = fieldSchema.getTypes();
+			nullBranch = types.size() == 2 ? types.indexOf(Schema.create(Schema.Type.NULL)) : -1;
+			if (nullBranch < 0) {
+				throw new IllegalArgumentException("Unsupported union of field %s: %s".formatted(field.name(), fieldSchema));
+			}
+			fieldSchema = types.get(1 - nullBranch);
+		}
+		return new FieldEncoder(field.name(), nullBranch, toValueEncoder(field.name(), fieldSchema));
+	}
+	
+	private static ValueEncoder toValueEncoder(String fieldName, Schema schema) {
+		var logicalType = schema.getLogicalType();
+		if (logicalType instanceof LogicalTypes.Decimal decimal) {
+			var scale = decimal.getScale();
+			if (schema.getType() == Schema.Type.FIXED) {
+				var size = schema.getFixedSize();
+				return (rs, c, out, field) -> {
+					var value = rs.getBigDecimal(c);
+					if (value == null) return false;
+					var fixed = toUnscaledFixed(fieldName, value, scale, size);
+					field.writeValueBranch(out);
+					out.writeFixed(fixed);
+					return true;
+				};
+			}
+			return (rs, c, out, field) -> {
+				var value = rs.getBigDecimal(c);
+				if (value == null) return false;
+				field.writeValueBranch(out);
+				out.writeBytes(toUnscaledBytes(fieldName, value, scale));
+				return true;
+			};
+		}
+		if (logicalType != null) {
+			ValueEncoder encoder = switch (logicalType.getName()) {
+				case "date" -> (rs, c, out, field) -> {
+					var value = rs.getObject(c, LocalDate.class);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeInt(Math.toIntExact(value.toEpochDay()));
+					return true;
+				};
+				case "time-millis" -> (rs, c, out, field) -> {
+					var value = rs.getObject(c, LocalTime.class);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeInt((int) (value.toNanoOfDay() / 1_000_000));
+					return true;
+				};
+				case "time-micros" -> (rs, c, out, field) -> {
+					var value = rs.getObject(c, LocalTime.class);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeLong(value.toNanoOfDay() / 1_000);
+					return true;
+				};
+				case "timestamp-millis" -> (rs, c, out, field) -> {
+					var value = rs.getTimestamp(c);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeLong(value.getTime());
+					return true;
+				};
+				case "timestamp-micros" -> (rs, c, out, field) -> {
+					var value = rs.getTimestamp(c);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeLong(toEpochMicros(value.toInstant()));
+					return true;
+				};
+				case "local-timestamp-millis" -> (rs, c, out, field) -> {
+					var value = rs.getObject(c, LocalDateTime.class);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeLong(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+					return true;
+				};
+				case "local-timestamp-micros" -> (rs, c, out, field) -> {
+					var value = rs.getObject(c, LocalDateTime.class);
+					if (value == null) return false;
+					field.writeValueBranch(out);
+					out.writeLong(toEpochMicros(value.toInstant(ZoneOffset.UTC)));
+					return true;
+				};
+				default -> null;
+			};
+			if (encoder != null) return encoder;
+		}
+		return switch (schema.getType()) {
+			case BOOLEAN -> (rs, c, out, field) -> {
+				var value = rs.getBoolean(c);
+				if (rs.wasNull()) return false;
+				field.writeValueBranch(out);
+				out.writeBoolean(value);
+				return true;
+			};
+			case INT -> (rs, c, out, field) -> {
+				var value = rs.getInt(c);
+				if (rs.wasNull()) return false;
+				field.writeValueBranch(out);
+				out.writeInt(value);
+				return true;
+			};
+			case LONG -> (rs, c, out, field) -> {
+				var value = rs.getLong(c);
+				if (rs.wasNull()) return false;
+				field.writeValueBranch(out);
+				out.writeLong(value);
+				return true;
+			};
+			case FLOAT -> (rs, c, out, field) -> {
+				var value = rs.getFloat(c);
+				if (rs.wasNull()) return false;
+				field.writeValueBranch(out);
+				out.writeFloat(value);
+				return true;
+			};
+			case DOUBLE -> (rs, c, out, field) -> {
+				var value = rs.getDouble(c);
+				if (rs.wasNull()) return false;
+				field.writeValueBranch(out);
+				out.writeDouble(value);
+				return true;
+			};
+			case STRING -> (rs, c, out, field) -> {
+				var value = rs.getString(c);
+				if (value == null) return false;
+				field.writeValueBranch(out);
+				out.writeString(value);
+				return true;
+			};
+			case BYTES -> (rs, c, out, field) -> {
+				var value = rs.getBytes(c);
+				if (value == null) return false;
+				field.writeValueBranch(out);
+				out.writeBytes(value);
+				return true;
+			};
+			case FIXED -> {
+				var size = schema.getFixedSize();
+				yield (rs, c, out, field) -> {
+					var value = rs.getBytes(c);
+					if (value == null) return false;
+					if (value.length != size) {
+						throw new IllegalArgumentException("Value of field %s must have %d bytes, but has %d".formatted(fieldName, size, value.length));
+					}
+					field.writeValueBranch(out);
+					out.writeFixed(value);
+					return true;
+				};
+			}
+			case ENUM -> {
+				var ordinals = new HashMap<String, Integer>();
+				schema.getEnumSymbols().forEach(symbol -> ordinals.put(symbol, ordinals.size()));
+				yield (rs, c, out, field) -> {
+					var value = rs.getString(c);
+					if (value == null) return false;
+					var ordinal = ordinals.get(value);
+					if (ordinal == null) {
+						throw new IllegalArgumentException("Unknown symbol of field %s: %s".formatted(fieldName, value));
+					}
+					field.writeValueBranch(out);
+					out.writeEnum(ordinal);
+					return true;
+				};
+			}
+			default -> throw new IllegalArgumentException("Unsupported type of field %s: %s".formatted(fieldName, schema));
+		};
+	}
+	
+	private static byte[] toUnscaledBytes(String fieldName, BigDecimal value, int scale) {
+		try {
+			return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().toByteArray();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Value of field %s exceeds scale %d: %s".formatted(fieldName, scale, value), e);
+		}
+	}
+	
+	/**
+	 * Returns the unscaled value as two's complement, sign-extended to the size of a fixed decimal.
+	 */
+	private static byte[] toUnscaledFixed(String fieldName, BigDecimal value, int scale, int size) {
+		var bytes = toUnscaledBytes(fieldName, value, scale);
+		if (bytes.length > size) {
+			throw new IllegalArgumentException("Value of field %s exceeds %d bytes: %s".formatted(fieldName, size, value));
+		}
+		var fixed = new byte[size];
+		var padding = (byte) (bytes[0] < 0 ? -1 : 0);
+		for (int i = 0; i < size - bytes.length; i++) {
+			fixed[i] = padding;
+		}
+		System.arraycopy(bytes, 0, fixed, size - bytes.length, bytes.length);
+		return fixed;
+	}
+	
+	private static long toEpochMicros(Instant value) {
+		return Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L), value.getNano() / 1_000);
+	}
+	
+	/**
+	 * Encodes a column value, if it is not null.
+	 */
+	@FunctionalInterface
+	private interface ValueEncoder {
+		/**
+		 * Reads the column value and writes the branch of the field and the value, if the value is not null.
+		 *
+		 * @return false, if the value is null and nothing has been written
+		 */
+		boolean encode(ResultSet resultSet, int column, Encoder out, FieldEncoder field) throws SQLException, IOException;
+	}
+	
+	@FunctionalInterface
+	interface RecordSink {
+		void recordEncoded() throws IOException;
+	}
+	
+	/**
+	 * Encodes a field, selecting the union branch of nullable fields.
+	 *
+	 * @param nullBranch The index of the null branch of a nullable field, or -1.
+	 */
+	private record FieldEncoder(
+			String name,
+			int nullBranch,
+			ValueEncoder valueEncoder
+	) {
+		void encode(ResultSet resultSet, int column, Encoder out) throws SQLException, IOException {
+			if (!valueEncoder.encode(resultSet, column, out, this)) {
+				if (nullBranch < 0) {
+					throw new IllegalArgumentException("Null value of non-null field " + name);
+				}
+				out.writeIndex(nullBranch);
+				out.writeNull();
+			}
+		}
+		
+		void writeValueBranch(Encoder out) throws IOException {
+			if (nullBranch >= 0) {
+				out.writeIndex(1 - nullBranch);
+			}
+		}
+	}
+	
+	/**
+	 * Buffers a single encoded record without copying it.
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		RecordBuffer() {
+			super(1024);
+		}
+		
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
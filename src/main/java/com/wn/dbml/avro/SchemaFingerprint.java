@@ -0,0 +1,30 @@
+package com.wn.dbml.avro;
+
+/**
+ * Computes the 64-bit Rabin fingerprint (CRC-64-AVRO) as defined by the Avro specification.
+ */
+final class SchemaFingerprint {
+	private static final long EMPTY = 0xc15d213aa4d7a795L;
+	private static final long[] TABLE = new long[256];
+	
+	static {
+		for (int i = 0; i < TABLE.length; i++) {
+			long fingerprint = i;
+			for (int j = 0; j < 8; j++) {
+				fingerprint = (fingerprint >>> 1) ^ (EMPTY & -(fingerprint & 1L));
+			}
+			TABLE[i] = fingerprint;
+		}
+	}
+	
+	private SchemaFingerprint() {
+	}
+	
+	static long rabin(byte[] bytes) {
+		var fingerprint = EMPTY;
+		for (var b : bytes) {
+			fingerprint = (fingerprint >>> 8) ^ TABLE[(int) (fingerprint ^ b) & 0xff];
+		}
+		return fingerprint;
+	}
+}
@@ -0,0 +1,116 @@
+package com.wn.dbml.avro;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The records and enums a DBML model translates to, without their schemas.
+ * Each schema is translated on demand, when the result of its entry is requested.
+ *
+ * @param entries The records in the order of their tables, followed by the enums.
+ * @see DbmlAvroTranslator#index(String)
+ */
+public record SchemaIndex(
+		List<Entry> entries
+) {
+	/**
+	 * Returns the entry of a record or enum.
+	 *
+	 * @return the entry or null, if there is no record or enum of the name
+	 */
+	public Entry get(String name) {
+		return entries.stream().filter(entry -> entry.name().equals(name)).findFirst().orElse(null);
+	}
+	
+	/**
+	 * The kind of named Avro type.
+	 */
+	public enum Kind {
+		RECORD,
+		ENUM
+	}
+	
+	/**
+	 * A record or enum of the index, whose result is translated on first access and kept afterwards.
+	 * It is thread-safe.
+	 */
+	public static final class Entry {
+		private final String name;
+		private final String namespace;
+		private final Kind kind;
+		private final int fieldCount;
+		private final List<String> enumTypes;
+		private Supplier<DbmlAvroTranslator.Result> translation;
+		private volatile DbmlAvroTranslator.Result result;
+		
+		Entry(String name, String namespace, Kind kind, int fieldCount, List<String> enumTypes, Supplier<DbmlAvroTranslator.Result> translation) {
+			this.name = name;
+			this.namespace = namespace;
+			this.kind = kind;
+			this.fieldCount = fieldCount;
+			this.enumTypes = enumTypes;
+			this.translation = translation;
+		}
+		
+		/**
+		 * Returns the name of the record or enum.
+		 */
+		public String name() {
+			return name;
+		}
+		
+		/**
+		 * Returns the namespace, or null for Avro's default namespace.
+		 */
+		public String namespace() {
+			return namespace;
+		}
+		
+		/**
+		 * Returns whether it is a record or an enum.
+		 */
+		public Kind kind() {
+			return kind;
+		}
+		
+		/**
+		 * Returns the number of fields of a record, or 0 for an enum.
+		 */
+		public int fieldCount() {
+			return fieldCount;
+		}
+		
+		/**
+		 * Returns the names of the enums referenced by the fields of a record, in the order of their first reference.
+		 */
+		public List<String> enumTypes() {
+			return enumTypes;
+		}
+		
+		/**
+		 * Returns the translation result, translating the schema on first access.
+		 *
+		 * @throws IllegalArgumentException if the record or enum is invalid
+		 * @throws ValidationException      if the record or enum is invalid and violations are collected
+		 */
+		public DbmlAvroTranslator.Result result() {
+			var result = this.result;
+			if (result == null) {
+				synchronized (this) {
+					result = this.result;
+					if (result == null) {
+						result = translation.get();
+						this.result = result;
+						translation = null;
+					}
+				}
+			}
+			return result;
+		}
+		
+		@Override
+		public String toString() {
+			return "Entry[name=%s, namespace=%s, kind=%s, fieldCount=%d, enumTypes=%s]".formatted(name, namespace, kind, fieldCount, enumTypes);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.wn.dbml.avro;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Supplies the targets the translated schemas are written to.
+ * A target returned by {@link #open(String)} belongs to the caller and is only flushed, never closed.
+ * The factory methods close the targets they open themselves.
+ */
+@FunctionalInterface
+public interface SchemaOutput {
+	/**
+	 * Opens the target for a schema.
+	 *
+	 * @param name The name of the translated table or enum.
+	 */
+	Appendable open(String name) throws IOException;
+	
+	/**
+	 * Completes the target after its schema has been written.
+	 * Flushes the target, if it is {@link Flushable}.
+	 *
+	 * @param name   The name of the translated table or enum.
+	 * @param target The target returned by {@link #open(String)}.
+	 */
+	default void finish(String name, Appendable target) throws IOException {
+		if (target instanceof Flushable flushable) {
+			flushable.flush();
+		}
+	}
+	
+	/**
+	 * Discards the target after writing its schema failed.
+	 * Does nothing by default.
+	 *
+	 * @param name   The name of the translated table or enum.
+	 * @param target The target returned by {@link #open(String)}.
+	 */
+	default void abort(String name, Appendable target) throws IOException {
+	}
+	
+	/**
+	 * Writes all schemas to a single target, each followed by a line separator.
+	 * The target is never flushed or closed.
+	 */
+	static SchemaOutput of(Appendable target) {
+		return new SchemaOutput() {
+			@Override
+			public Appendable open(String name) {
+				return target;
+			}
+			
+			@Override
+			public void finish(String name, Appendable out) throws IOException {
+				out.append(System.lineSeparator());
+			}
+		};
+	}
+	
+	/**
+	 * Writes each schema in UTF-8 to its own output stream, which is closed afterwards.
+	 */
+	static SchemaOutput ofStreams(Target<? extends OutputStream> streams) {
+		return closing(name -> new BufferedWriter(new OutputStreamWriter(streams.open(name), StandardCharsets.UTF_8)));
+	}
+	
+	/**
+	 * Writes each schema in UTF-8 to its own byte channel, which is closed afterwards.
+	 */
+	static SchemaOutput ofChannels(Target<? extends WritableByteChannel> channels) {
+		return closing(name -> Channels.newWriter(channels.open(name), StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Writes each schema in UTF-8 to the file {@code <name>.avsc} in the directory.
+	 * The schema is written to a temporary file first, which only replaces the schema file if the schema is complete.
+	 */
+	static SchemaOutput ofDirectory(Path directory) {
+		return new DirectoryOutput(directory);
+	}
+	
+	private static SchemaOutput closing(Target<? extends Writer> writers) {
+		return new SchemaOutput() {
+			@Override
+			public Appendable open(String name) throws IOException {
+				return writers.open(name);
+			}
+			
+			@Override
+			public void finish(String name, Appendable target) throws IOException {
+				((Writer) target).close();
+			}
+			
+			@Override
+			public void abort(String name, Appendable target) throws IOException {
+				((Writer) target).close();
+			}
+		};
+	}
+	
+	/**
+	 * Opens a byte-oriented target for a schema.
+	 */
+	@FunctionalInterface
+	interface Target<T> {
+		T open(String name) throws IOException;
+	}
+}
@@ -0,0 +1,86 @@
+package com.wn.dbml.avro;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores translated schemas as versions of subjects, like a schema registry.
+ * A schema is only registered as a new version, if it is not already a version of the subject.
+ * Schemas are identified by the fingerprint of their Parsing Canonical Form, so that formatting does not matter.
+ */
+public interface SchemaStore {
+	/**
+	 * Registers the schema as the next version of the subject, unless it is already a version of the subject.
+	 *
+	 * @param subject the subject
+	 * @param schema  the schema
+	 * @return the new or existing version
+	 */
+	Registration register(String subject, String schema);
+	
+	/**
+	 * Registers the schema as the next version of the subject, unless it is already a version of the subject.
+	 *
+	 * @param subject         the subject
+	 * @param schema          the schema
+	 * @param canonicalSchema the Parsing Canonical Form of the schema
+	 * @return the new or existing version
+	 */
+	Registration register(String subject, String schema, String canonicalSchema);
+	
+	/**
+	 * Registers the schemas of translation results, using their names as subjects.
+	 * The canonical form of the results is used, if they have one.
+	 *
+	 * @param results the translation results
+	 * @return the new or existing versions, in the order of the results
+	 * @see DbmlAvroTranslator#withCanonicalForm(String...)
+	 */
+	default List<Registration> registerAll(Collection<DbmlAvroTranslator.Result> results) {
+		var registrations = new ArrayList<Registration>(results.size());
+		for (var result : results) {
+			var canonicalForm = result.canonicalForm();
+			registrations.add(canonicalForm != null
+					? register(result.name(), result.schema(), canonicalForm.schema())
+					: register(result.name(), result.schema()));
+		}
+		return registrations;
+	}
+	
+	/**
+	 * Returns the latest version of the subject.
+	 *
+	 * @return the latest version or null, if the subject is unknown
+	 */
+	Registration getLatest(String subject);
+	
+	/**
+	 * Returns all versions of the subject, in ascending order.
+	 */
+	List<Registration> getVersions(String subject);
+	
+	/**
+	 * Returns a stored schema.
+	 *
+	 * @param fingerprint the 64-bit Rabin fingerprint of the canonical form of the schema
+	 * @return the schema as first registered or null, if it is unknown
+	 */
+	String getSchema(long fingerprint);
+	
+	/**
+	 * A version of a subject.
+	 *
+	 * @param subject     The subject.
+	 * @param version     The version number, starting at 1.
+	 * @param fingerprint The 64-bit Rabin fingerprint of the canonical form of the schema.
+	 * @param created     Whether the version has been created by the registration returning it.
+	 */
+	record Registration(
+			String subject,
+			int version,
+			long fingerprint,
+			boolean created
+	) {
+	}
+}
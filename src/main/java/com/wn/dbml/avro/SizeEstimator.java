@@ -0,0 +1,322 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Estimates the Avro binary size of the records translated from DBML, per field and per record,
+ * based on the Avro types resolved by the {@link TypeMapper}.
+ * <p>
+ * Each size consists of the minimum, the maximum and a typical size in bytes.
+ * Integers are zig-zag varints of 1 to 5 or 10 bytes, nullable fields add a byte for the union branch,
+ * strings and bytes are prefixed with their length, and are bounded by a length argument like {@code varchar(n)},
+ * while fixed types, like the decimals of the {@link EncodingProfile#COMPACT compact encoding profile}, have their size.
+ * Typical sizes assume integers below 2<sup>20</sup>, longs below 2<sup>34</sup>, timestamps around 2024,
+ * half the length or precision of bounded strings, bytes and decimals, and {@value #DEFAULT_STRING_LENGTH}
+ * ASCII characters or bytes for unbounded ones.
+ */
+public class SizeEstimator {
+	/**
+	 * The typical length of unbounded strings and bytes.
+	 */
+	public static final int DEFAULT_STRING_LENGTH = 16;
+	/**
+	 * The maximum number of bytes of a UTF-8 encoded character.
+	 */
+	private static final int MAX_UTF8_BYTES = 4;
+	private static final Pattern LENGTH_ARG = Pattern.compile("\\(\\s*(\\d+)\\s*\\)");
+	/**
+	 * The base names of the fixed-length character types, which are padded to their length.
+	 */
+	private static final Set<String> FIXED_LENGTH_CHARACTER_TYPES = Set.of("char", "character", "nchar");
+	private static final long TYPICAL_EPOCH_MILLIS = 1_704_067_200_000L;
+	private static final long TYPICAL_TIME_MILLIS = 12 * 60 * 60 * 1000L;
+	private static final Size UUID = fixedLength(36);
+	private final TypeMapper typeMapper;
+	
+	/**
+	 * Default constructor.
+	 *
+	 * @param config Config
+	 */
+	public SizeEstimator(Config config) {
+		this(new TypeMapper(config));
+	}
+	
+	/**
+	 * Constructor sharing a type mapper, and thereby its memoized mappings, with translators.
+	 *
+	 * @param typeMapper a type mapper
+	 */
+	public SizeEstimator(TypeMapper typeMapper) {
+		this.typeMapper = typeMapper;
+	}
+	
+	/**
+	 * Estimates the record sizes of the tables.
+	 *
+	 * @param dbml a DBML string
+	 * @return the report
+	 */
+	public Report estimate(String dbml) {
+		return estimate(DbmlParser.parse(dbml));
+	}
+	
+	/**
+	 * Estimates the record sizes of the tables.
+	 *
+	 * @param dbml a DBML reader
+	 * @return the report
+	 */
+	public Report estimate(Reader dbml) {
+		return estimate(DbmlParser.parse(dbml));
+	}
+	
+	private Report estimate(Database database) {
+		var namedTypes = NamedTypes.of(database);
+		var records = new ArrayList<RecordEstimate>();
+		for (var schema : database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				var fields = new ArrayList<FieldEstimate>(table.getColumns().size());
+				var size = new Size(0, 0, 0);
+				for (var column : table.getColumns()) {
+					var field = estimate(column, namedTypes);
+					fields.add(field);
+					size = size.plus(field.size());
+				}
+				records.add(new RecordEstimate(table.getName(), Collections.unmodifiableList(fields), size));
+			}
+		}
+		return new Report(Collections.unmodifiableList(records));
+	}
+	
+	private FieldEstimate estimate(Column column, NamedTypes namedTypes) {
+		var columnType = column.getType();
+		var anEnum = namedTypes.resolve(columnType);
+		Size size;
+		String type;
+		if (anEnum != null) {
+			size = estimate(anEnum);
+			type = "enum";
+		} else {
+			var avroType = typeMapper.resolve(columnType);
+			size = estimate(avroType, columnType);
+			type = avroType.logicalType() == null ? avroType.type() : avroType.logicalType();
+		}
+		if (!column.getSettings().containsKey(ColumnSetting.NOT_NULL)) {
+			size = size.nullable();
+		}
+		return new FieldEstimate(column.getName(), type, size);
+	}
+	
+	private static Size estimate(Enum anEnum) {
+		var symbols = anEnum.getValues().size();
+		return new Size(1, varintSize(symbols - 1), varintSize(symbols / 2));
+	}
+	
+	static Size estimate(TypeMapper.AvroType avroType, String columnType) {
+		if (avroType.type().equals("fixed")) {
+			var size = avroType.attributes().get("size");
+			return new Size(size, size, size);
+		}
+		var logicalType = avroType.logicalType();
+		if (logicalType != null) {
+			switch (logicalType) {
+				case "decimal":
+					return decimal(avroType.attributes().get("precision"));
+				case "uuid":
+					return UUID;
+				case "date":
+					return new Size(1, 5, varintSize(TYPICAL_EPOCH_MILLIS / 86_400_000L));
+				case "time-millis":
+					return new Size(1, varintSize(86_400_000L - 1), varintSize(TYPICAL_TIME_MILLIS));
+				case "time-micros":
+					return new Size(1, varintSize(86_400_000_000L - 1), varintSize(TYPICAL_TIME_MILLIS * 1000));
+				case "timestamp-millis":
+				case "local-timestamp-millis":
+					return new Size(1, 10, varintSize(TYPICAL_EPOCH_MILLIS));
+				case "timestamp-micros":
+				case "local-timestamp-micros":
+					return new Size(1, 10, varintSize(TYPICAL_EPOCH_MILLIS * 1000));
+				default:
+					break;
+			}
+		}
+		return switch (avroType.type()) {
+			case "null" -> new Size(0, 0, 0);
+			case "boolean" -> new Size(1, 1, 1);
+			case "int" -> new Size(1, 5, varintSize(1 << 19));
+			case "long" -> new Size(1, 10, varintSize(1L << 33));
+			case "float" -> new Size(4, 4, 4);
+			case "double" -> new Size(8, 8, 8);
+			case "string" -> variableLength(columnType, MAX_UTF8_BYTES);
+			case "bytes" -> variableLength(columnType, 1);
+			default -> throw new IllegalArgumentException("Unsupported type of column type %s: %s".formatted(columnType, avroType.type()));
+		};
+	}
+	
+	/**
+	 * Returns the size of a length-prefixed string or byte sequence, bounded by the length argument of the column type.
+	 * Fixed-length character types like {@code char(n)} always have the given length.
+	 */
+	private static Size variableLength(String columnType, int maxBytesPerUnit) {
+		var matcher = LENGTH_ARG.matcher(columnType);
+		if (!matcher.find()) {
+			return new Size(1, Size.UNBOUNDED, varintSize(DEFAULT_STRING_LENGTH) + DEFAULT_STRING_LENGTH);
+		}
+		var length = Long.parseLong(matcher.group(1));
+		var maxBytes = length * maxBytesPerUnit;
+		var max = varintSize(maxBytes) + maxBytes;
+		if (FIXED_LENGTH_CHARACTER_TYPES.contains(baseName(columnType))) {
+			return new Size(varintSize(length) + length, max, varintSize(length) + length);
+		}
+		return new Size(1, max, varintSize(length / 2) + length / 2);
+	}
+	
+	/**
+	 * Returns the name of a column type without its arguments, e.g. {@code character varying} of {@code character varying(10)}.
+	 */
+	private static String baseName(String columnType) {
+		var arguments = columnType.indexOf('(');
+		return (arguments < 0 ? columnType : columnType.substring(0, arguments)).strip().toLowerCase(Locale.ROOT);
+	}
+	
+	private static Size fixedLength(long length) {
+		var size = varintSize(length) + length;
+		return new Size(size, size, size);
+	}
+	
+	/**
+	 * Returns the size of a decimal of the precision as length-prefixed two's complement bytes.
+	 */
+	private static Size decimal(int precision) {
+		var max = TypeMapper.decimalBytes(precision);
+		var typical = TypeMapper.decimalBytes((precision + 1) / 2);
+		return new Size(2, varintSize(max) + max, varintSize(typical) + typical);
+	}
+	
+	/**
+	 * Returns the size of a zig-zag encoded varint.
+	 */
+	static int varintSize(long value) {
+		var zigZag = (value << 1) ^ (value >> 63);
+		return (64 - Long.numberOfLeadingZeros(zigZag | 1) + 6) / 7;
+	}
+	
+	/**
+	 * The size of a value in bytes.
+	 *
+	 * @param min     The minimum size.
+	 * @param max     The maximum size, or {@link #UNBOUNDED}.
+	 * @param typical The typical size.
+	 */
+	public record Size(
+			long min,
+			long max,
+			long typical
+	) {
+		/**
+		 * The maximum of an unbounded size.
+		 */
+		public static final long UNBOUNDED = -1;
+		
+		/**
+		 * Returns whether the size has a maximum.
+		 */
+		public boolean isBounded() {
+			return max != UNBOUNDED;
+		}
+		
+		Size plus(Size size) {
+			var sum = isBounded() && size.isBounded() ? max + size.max : UNBOUNDED;
+			return new Size(min + size.min, sum, typical + size.typical);
+		}
+		
+		/**
+		 * Returns the size of the union of null and a value of this size.
+		 */
+		Size nullable() {
+			return new Size(1, isBounded() ? max + 1 : UNBOUNDED, typical + 1);
+		}
+	}
+	
+	/**
+	 * The estimated size of a field.
+	 *
+	 * @param name The field name.
+	 * @param type The Avro type, or its logical type.
+	 * @param size The size of the field.
+	 */
+	public record FieldEstimate(
+			String name,
+			String type,
+			Size size
+	) {
+	}
+	
+	/**
+	 * The estimated size of a record.
+	 *
+	 * @param name   The record name.
+	 * @param fields The estimated fields.
+	 * @param size   The size of the record.
+	 */
+	public record RecordEstimate(
+			String name,
+			List<FieldEstimate> fields,
+			Size size
+	) {
+	}
+	
+	/**
+	 * The estimated sizes of all records.
+	 *
+	 * @param records The records in the order of their tables.
+	 */
+	public record Report(
+			List<RecordEstimate> records
+	) {
+		/**
+		 * Returns the estimate of a record.
+		 *
+		 * @return the estimate or null, if there is no record of the name
+		 */
+		public RecordEstimate get(String name) {
+			return records.stream().filter(record -> record.name().equals(name)).findFirst().orElse(null);
+		}
+		
+		/**
+		 * Returns the report in CSV format, with a line per field followed by a line for the record,
+		 * whose field is empty. An unbounded maximum is empty as well.
+		 */
+		public String toCsv() {
+			var sb = new StringBuilder("record,field,type,min,max,typical\n");
+			for (var record : records) {
+				for (var field : record.fields()) {
+					appendCsv(sb, record.name(), field.name(), field.type(), field.size());
+				}
+				appendCsv(sb, record.name(), "", "record", record.size());
+			}
+			return sb.toString();
+		}
+		
+		private static void appendCsv(StringBuilder sb, String record, String field, String type, Size size) {
+			sb.append(record).append(',').append(field).append(',').append(type).append(',').append(size.min()).append(',');
+			if (size.isBounded()) {
+				sb.append(size.max());
+			}
+			sb.append(',').append(size.typical()).append('\n');
+		}
+	}
+}
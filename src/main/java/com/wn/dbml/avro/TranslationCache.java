@@ -0,0 +1,34 @@
+package com.wn.dbml.avro;
+
+/**
+ * Caches translated schemas by the content hash of their table or enum definition and the config.
+ *
+ * @see DbmlAvroTranslator#withCache(TranslationCache)
+ */
+public interface TranslationCache {
+	/**
+	 * Returns the cached schema.
+	 *
+	 * @param key the content hash
+	 * @return the schema or null, if it is not cached
+	 */
+	String get(String key);
+	
+	/**
+	 * Caches a schema.
+	 *
+	 * @param key    the content hash
+	 * @param schema the schema
+	 */
+	void put(String key, String schema);
+	
+	/**
+	 * Returns the number of lookups that found a cached schema.
+	 */
+	long hits();
+	
+	/**
+	 * Returns the number of lookups that did not find a cached schema.
+	 */
+	long misses();
+}
@@ -0,0 +1,89 @@
+package com.wn.dbml.avro;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of translations.
+ * They are disabled by default and can be enabled in a recording configuration by their names.
+ */
+final class TranslationEvents {
+	private static final EventType PARSE = EventType.getEventType(Parse.class);
+	private static final EventType TABLE = EventType.getEventType(Table.class);
+	private static final EventType TRANSLATION = EventType.getEventType(Translation.class);
+	
+	private TranslationEvents() {
+	}
+	
+	/**
+	 * Returns whether any of the events is enabled in a running recording.
+	 */
+	static boolean isEnabled() {
+		return PARSE.isEnabled() || TABLE.isEnabled() || TRANSLATION.isEnabled();
+	}
+	
+	@Name("com.wn.dbml.avro.Parse")
+	@Label("DBML Parse")
+	@Description("Parsing of a DBML model")
+	@Category("DBML-Avro")
+	@StackTrace(false)
+	static class Parse extends Event {
+	}
+	
+	@Name("com.wn.dbml.avro.Table")
+	@Label("DBML Table Translation")
+	@Description("Translation of a table to an Avro schema")
+	@Category("DBML-Avro")
+	@StackTrace(false)
+	static class Table extends Event {
+		@Label("Table")
+		String table;
+		@Label("Columns")
+		int columns;
+		@Label("Bytes")
+		@DataAmount
+		long bytes;
+		@Label("Validation Time")
+		@Timespan
+		long validateNanos;
+		@Label("Type Mapping Time")
+		@Timespan
+		long mapTypesNanos;
+	}
+	
+	@Name("com.wn.dbml.avro.Translation")
+	@Label("DBML Translation")
+	@Description("Translation of a DBML model to Avro schemas, including parsing")
+	@Category("DBML-Avro")
+	@StackTrace(false)
+	static class Translation extends Event {
+		@Label("Tables")
+		int tables;
+		@Label("Columns")
+		int columns;
+		@Label("Enums")
+		int enums;
+		@Label("Bytes")
+		@DataAmount
+		long bytes;
+		@Label("Parse Time")
+		@Timespan
+		long parseNanos;
+		@Label("Validation Time")
+		@Timespan
+		long validateNanos;
+		@Label("Type Mapping Time")
+		@Timespan
+		long mapTypesNanos;
+		@Label("Emission Time")
+		@Timespan
+		long emitNanos;
+	}
+}
@@ -0,0 +1,71 @@
+package com.wn.dbml.avro;
+
+/**
+ * Receives the metrics of translations, e.g. to record them in a metrics registry.
+ * Parallel translations may call it concurrently.
+ *
+ * @see DbmlAvroTranslator#withListener(TranslationListener)
+ */
+public interface TranslationListener {
+	/**
+	 * Called after a table has been translated.
+	 */
+	default void tableTranslated(TableMetrics metrics) {
+	}
+	
+	/**
+	 * Called after a translation has been completed successfully.
+	 */
+	default void translationCompleted(TranslationMetrics metrics) {
+	}
+	
+	/**
+	 * The metrics of a translated table.
+	 *
+	 * @param name          The name of the table.
+	 * @param columns       The number of columns.
+	 * @param bytes         The number of bytes of the schema in UTF-8.
+	 * @param validateNanos The time spent validating names.
+	 * @param mapTypesNanos The time spent mapping column types.
+	 * @param emitNanos     The remaining time spent emitting the schema.
+	 */
+	record TableMetrics(
+			String name,
+			int columns,
+			long bytes,
+			long validateNanos,
+			long mapTypesNanos,
+			long emitNanos
+	) {
+		/**
+		 * Returns the total time spent translating the table.
+		 */
+		public long totalNanos() {
+			return validateNanos + mapTypesNanos + emitNanos;
+		}
+	}
+	
+	/**
+	 * The metrics of a translation, summed up over all tables and enums.
+	 *
+	 * @param tables        The number of translated tables.
+	 * @param columns       The number of translated columns.
+	 * @param enums         The number of translated enums.
+	 * @param bytes         The number of bytes of all schemas in UTF-8.
+	 * @param parseNanos    The time spent parsing the DBML.
+	 * @param validateNanos The time spent validating names.
+	 * @param mapTypesNanos The time spent mapping column types.
+	 * @param emitNanos     The remaining time spent emitting the schemas.
+	 */
+	record TranslationMetrics(
+			int tables,
+			int columns,
+			int enums,
+			long bytes,
+			long parseNanos,
+			long validateNanos,
+			long mapTypesNanos,
+			long emitNanos
+	) {
+	}
+}
@@ -0,0 +1,455 @@
+package com.wn.dbml.avro;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.wn.dbml.compiler.ParsingException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An embedded HTTP service translating DBML to Avro schemas, based on the JDK's {@code com.sun.net.httpserver}.
+ * It reuses one translator per config, including its memoized type mappings and cached schemas,
+ * and handles each request on a virtual thread, if the runtime supports them.
+ * <ul>
+ *     <li>{@code POST /translate} translates the DBML of the request body and responds with a JSON array
+ *     of the results, each with the ETag of its schema.
+ *     The config can be changed by the query parameters {@code namespace}, {@code scale}, {@code profile} and {@code mapping},
+ *     e.g. {@code ?namespace=com.example&mapping=int=int2,int4}.
+ *     Responses are cached by config and SHA-256 digest of the DBML, up to a total size in bytes.</li>
+ *     <li>{@code GET /schemas/<etag>} responds with a translated schema.</li>
+ *     <li>{@code GET /metrics} responds with the latency histograms and cache counters in the Prometheus text format.</li>
+ * </ul>
+ * Responses with an ETag are not sent again, if the request's {@code If-None-Match} header matches it.
+ */
+public class TranslationServer implements Closeable {
+	private static final String JSON = "application/json; charset=utf-8";
+	private static final String TEXT = "text/plain; charset=utf-8";
+	private static final String SCHEMAS_PATH = "/schemas/";
+	private static final System.Logger LOGGER = System.getLogger(TranslationServer.class.getName());
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+	private final Config config;
+	private final int schemaCacheSize;
+	private final int maxRequestSize;
+	private final Map<Config, DbmlAvroTranslator> translators;
+	private final ResponseCache translations;
+	private final Map<String, Response> schemas;
+	private final LatencyHistogram translateLatency = new LatencyHistogram();
+	private final LatencyHistogram schemaLatency = new LatencyHistogram();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	
+	private TranslationServer(Builder builder, InetSocketAddress address) throws IOException {
+		this.config = builder.config;
+		this.schemaCacheSize = builder.schemaCacheSize;
+		this.maxRequestSize = builder.maxRequestSize;
+		this.translators = newLruMap(builder.maxConfigs);
+		this.translations = new ResponseCache(builder.maxCacheBytes);
+		this.schemas = newLruMap(builder.schemaCacheSize);
+		this.ownExecutor = builder.executor == null;
+		this.executor = ownExecutor ? newVirtualThreadExecutor() : builder.executor;
+		this.server = HttpServer.create(address, 0);
+		server.setExecutor(executor);
+		server.createContext("/translate", exchange -> handle(exchange, "POST", translateLatency, this::translate));
+		server.createContext(SCHEMAS_PATH, exchange -> handle(exchange, "GET", schemaLatency, this::getSchema));
+		server.createContext("/metrics", exchange -> handle(exchange, "GET", null, e -> getMetrics()));
+		server.start();
+	}
+	
+	/**
+	 * Creates a builder.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * Starts a server with the default config.
+	 *
+	 * @param args the port, 8080 by default
+	 */
+	public static void main(String[] args) throws IOException {
+		var port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		var server = builder().start(new InetSocketAddress(port));
+		System.out.println("Listening on http://localhost:" + server.getAddress().getPort());
+	}
+	
+	/**
+	 * Returns the address the server is bound to.
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+	
+	/**
+	 * Stops the server, closing all connections.
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+	
+	private void handle(HttpExchange exchange, String method, LatencyHistogram latency, Handler handler) throws IOException {
+		var start = System.nanoTime();
+		try (exchange) {
+			Response response;
+			if (!exchange.getRequestMethod().equals(method)) {
+				exchange.getResponseHeaders().set("Allow", method);
+				response = Response.text(405, "Method not allowed: " + exchange.getRequestMethod());
+			} else {
+				try {
+					response = handler.handle(exchange);
+				} catch (ParsingException e) {
+					response = Response.text(400, e.getMessage());
+				} catch (IllegalArgumentException e) {
+					response = Response.text(400, e.getMessage());
+				} catch (RuntimeException e) {
+					LOGGER.log(System.Logger.Level.ERROR, "Failed to handle " + exchange.getRequestURI(), e);
+					response = Response.text(500, "Internal server error");
+				}
+			}
+			send(exchange, response);
+		} finally {
+			if (latency != null) {
+				latency.record(System.nanoTime() - start);
+			}
+		}
+	}
+	
+	private static void send(HttpExchange exchange, Response response) throws IOException {
+		var headers = exchange.getResponseHeaders();
+		if (response.etag() != null) {
+			var etag = '"' + response.etag() + '"';
+			headers.set("ETag", etag);
+			if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+		}
+		headers.set("Content-Type", response.contentType());
+		exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+		exchange.getResponseBody().write(response.body());
+	}
+	
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (var candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.strip();
+			if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private Response translate(HttpExchange exchange) throws IOException {
+		var config = toConfig(exchange.getRequestURI().getRawQuery());
+		var body = exchange.getRequestBody().readNBytes(maxRequestSize + 1);
+		if (body.length > maxRequestSize) {
+			return Response.text(413, "Request body exceeds %d bytes".formatted(maxRequestSize));
+		}
+		var key = new TranslationKey(config, digest(body));
+		var response = translations.get(key);
+		if (response != null) {
+			cacheHits.increment();
+			return response;
+		}
+		cacheMisses.increment();
+		var translator = translators.computeIfAbsent(config, c -> new DbmlAvroTranslator(c).withCache(new MemoryTranslationCache(schemaCacheSize)));
+		var json = new StringBuilder("[");
+		for (var result : translator.translate(new String(body, UTF_8))) {
+			var schema = result.schema().getBytes(UTF_8);
+			var etag = toETag(schema);
+			schemas.putIfAbsent(etag, new Response(200, JSON, etag, schema));
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			json.append("\n{\"name\": \"").append(result.name())
+					.append("\", \"etag\": \"").append(etag)
+					.append("\", \"schema\": ").append(result.schema()).append('}');
+		}
+		var bytes = json.append("\n]").toString().getBytes(UTF_8);
+		response = new Response(200, JSON, toETag(bytes), bytes);
+		translations.put(key, response);
+		return response;
+	}
+	
+	private Response getSchema(HttpExchange exchange) {
+		var etag = exchange.getRequestURI().getPath().substring(SCHEMAS_PATH.length());
+		var response = schemas.get(etag);
+		return response != null ? response : Response.text(404, "Unknown schema: " + etag);
+	}
+	
+	private Response getMetrics() {
+		var sb = new StringBuilder();
+		var name = "dbml_avro_request_duration_seconds";
+		sb.append("# TYPE ").append(name).append(" histogram\n");
+		translateLatency.appendTo(sb, name, "endpoint=\"translate\"");
+		schemaLatency.appendTo(sb, name, "endpoint=\"schemas\"");
+		sb.append("# TYPE dbml_avro_translation_cache_hits_total counter\n");
+		sb.append("dbml_avro_translation_cache_hits_total ").append(cacheHits.sum()).append('\n');
+		sb.append("# TYPE dbml_avro_translation_cache_misses_total counter\n");
+		sb.append("dbml_avro_translation_cache_misses_total ").append(cacheMisses.sum()).append('\n');
+		return new Response(200, TEXT, null, sb.toString().getBytes(UTF_8));
+	}
+	
+	/**
+	 * Derives the config of a request from the default config and the query parameters.
+	 */
+	private Config toConfig(String rawQuery) {
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return config;
+		}
+		var builder = Config.builder()
+				.setNamespace(config.namespace())
+				.setTypeMappings(config.typeMappings())
+				.setDefaultScale(config.defaultScale())
+				.setEncodingProfile(config.encodingProfile());
+		for (var parameter : rawQuery.split("&")) {
+			var separator = parameter.indexOf('=');
+			var name = URLDecoder.decode(separator < 0 ? parameter : parameter.substring(0, separator), UTF_8);
+			var value = separator < 0 ? "" : URLDecoder.decode(parameter.substring(separator + 1), UTF_8);
+			switch (name) {
+				case "namespace" -> builder.setNamespace(value.isEmpty() ? null : value);
+				case "scale" -> {
+					try {
+						builder.setDefaultScale(Integer.parseInt(value));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("Invalid scale: " + value, e);
+					}
+				}
+				case "profile" -> {
+					try {
+						builder.setEncodingProfile(EncodingProfile.valueOf(value.toUpperCase(Locale.ROOT)));
+					} catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException("Invalid profile: " + value, e);
+					}
+				}
+				case "mapping" -> {
+					var equals = value.indexOf('=');
+					if (equals <= 0) {
+						throw new IllegalArgumentException("Invalid type mapping, expected avro=dbml[,dbml...]: " + value);
+					}
+					for (var dbmlType : value.substring(equals + 1).split(",")) {
+						builder.addTypeMapping(value.substring(0, equals), dbmlType.strip());
+					}
+				}
+				default -> throw new IllegalArgumentException("Unknown parameter: " + name);
+			}
+		}
+		return builder.build();
+	}
+	
+	private static String digest(byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String toETag(byte[] bytes) {
+		return "%016x".formatted(SchemaFingerprint.rabin(bytes));
+	}
+	
+	private static <K, V> Map<K, V> newLruMap(int maxSize) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+	
+	/**
+	 * Creates an executor starting a virtual thread per request on Java 21 and later,
+	 * or a cached thread pool on earlier runtimes.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			var threads = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				var thread = new Thread(runnable, "dbml-avro-server-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	@FunctionalInterface
+	private interface Handler {
+		Response handle(HttpExchange exchange) throws IOException;
+	}
+	
+	private record TranslationKey(
+			Config config,
+			String digest
+	) {
+	}
+	
+	/**
+	 * Caches translation responses, evicting the least recently used ones when their total size exceeds the maximum.
+	 */
+	private static class ResponseCache {
+		/**
+		 * The approximate size of an entry besides the response body, i.e. the key, ETag and map entry.
+		 */
+		private static final int ENTRY_OVERHEAD = 256;
+		private final long maxBytes;
+		private final LinkedHashMap<TranslationKey, Response> responses = new LinkedHashMap<>(16, 0.75f, true);
+		private long bytes;
+		
+		ResponseCache(long maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+		
+		synchronized Response get(TranslationKey key) {
+			return responses.get(key);
+		}
+		
+		synchronized void put(TranslationKey key, Response response) {
+			var size = sizeOf(response);
+			if (size > maxBytes) {
+				return;
+			}
+			var previous = responses.put(key, response);
+			if (previous != null) {
+				bytes -= sizeOf(previous);
+			}
+			bytes += size;
+			for (var iterator = responses.values().iterator(); bytes > maxBytes; ) {
+				bytes -= sizeOf(iterator.next());
+				iterator.remove();
+			}
+		}
+		
+		private static long sizeOf(Response response) {
+			return response.body().length + ENTRY_OVERHEAD;
+		}
+	}
+	
+	private record Response(
+			int status,
+			String contentType,
+			String etag,
+			byte[] body
+	) {
+		static Response text(int status, String message) {
+			return new Response(status, TEXT, null, String.valueOf(message).getBytes(UTF_8));
+		}
+	}
+	
+	public static class Builder {
+		/**
+		 * The default maximum total size of the cached translation responses in bytes.
+		 */
+		public static final long DEFAULT_MAX_CACHE_BYTES = 64 * 1024 * 1024;
+		/**
+		 * The default number of cached schemas, per config and by ETag.
+		 */
+		public static final int DEFAULT_SCHEMA_CACHE_SIZE = 4096;
+		/**
+		 * The default number of configs with their own translator.
+		 */
+		public static final int DEFAULT_MAX_CONFIGS = 16;
+		/**
+		 * The default maximum size of a request body in bytes.
+		 */
+		public static final int DEFAULT_MAX_REQUEST_SIZE = 64 * 1024 * 1024;
+		private Config config = Config.builder().build();
+		private long maxCacheBytes = DEFAULT_MAX_CACHE_BYTES;
+		private int schemaCacheSize = DEFAULT_SCHEMA_CACHE_SIZE;
+		private int maxConfigs = DEFAULT_MAX_CONFIGS;
+		private int maxRequestSize = DEFAULT_MAX_REQUEST_SIZE;
+		private ExecutorService executor;
+		
+		private Builder() {
+		}
+		
+		/**
+		 * Sets the config of requests without query parameters, from which the config of all other requests is derived.
+		 */
+		public Builder setConfig(Config config) {
+			this.config = config;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum total size of the cached translation responses in bytes.
+		 */
+		public Builder setMaxCacheBytes(long maxCacheBytes) {
+			if (maxCacheBytes <= 0) throw new IllegalArgumentException("Maximum cache size must be a positive integer");
+			this.maxCacheBytes = maxCacheBytes;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of cached schemas, per config and by ETag.
+		 */
+		public Builder setSchemaCacheSize(int schemaCacheSize) {
+			if (schemaCacheSize <= 0) throw new IllegalArgumentException("Schema cache size must be a positive integer");
+			this.schemaCacheSize = schemaCacheSize;
+			return this;
+		}
+		
+		/**
+		 * Sets the number of configs with their own translator, whereof the least recently used is evicted.
+		 */
+		public Builder setMaxConfigs(int maxConfigs) {
+			if (maxConfigs <= 0) throw new IllegalArgumentException("Maximum number of configs must be a positive integer");
+			this.maxConfigs = maxConfigs;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum size of a request body in bytes.
+		 */
+		public Builder setMaxRequestSize(int maxRequestSize) {
+			if (maxRequestSize <= 0 || maxRequestSize == Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Maximum request size must be a positive integer below " + Integer.MAX_VALUE);
+			}
+			this.maxRequestSize = maxRequestSize;
+			return this;
+		}
+		
+		/**
+		 * Sets the executor handling the requests, which is not shut down with the server.
+		 * By default, each request is handled on a new virtual thread.
+		 */
+		public Builder setExecutor(ExecutorService executor) {
+			this.executor = executor;
+			return this;
+		}
+		
+		/**
+		 * Starts a server bound to the address, e.g. to port 0 for an ephemeral port.
+		 */
+		public TranslationServer start(InetSocketAddress address) throws IOException {
+			return new TranslationServer(this, address);
+		}
+	}
+}
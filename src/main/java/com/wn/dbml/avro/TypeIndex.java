@@ -0,0 +1,73 @@
+package com.wn.dbml.avro;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A character trie over the DBML types of a type mapping.
+ * Finds the Avro type of the longest DBML type that a column type starts with.
+ */
+class TypeIndex {
+	private final Node root = new Node();
+	
+	TypeIndex(Map<String, Set<String>> typeMappings) {
+		typeMappings.forEach((avroType, dbmlTypes) -> dbmlTypes.forEach(dbmlType -> add(dbmlType, avroType)));
+	}
+	
+	private void add(String dbmlType, String avroType) {
+		var node = root;
+		for (int i = 0; i < dbmlType.length(); i++) {
+			node = node.getOrAddChild(dbmlType.charAt(i));
+		}
+		if (node.avroType != null && !node.avroType.equals(avroType)) {
+			throw new IllegalArgumentException("Ambiguous type mapping: %s is mapped to %s and %s"
+					.formatted(dbmlType, node.avroType, avroType));
+		}
+		node.avroType = avroType;
+	}
+	
+	/**
+	 * Returns the Avro type of the longest DBML type the given type starts with.
+	 *
+	 * @param type a normalized column type
+	 * @return the Avro type or null, if no DBML type matches
+	 */
+	String find(String type) {
+		var node = root;
+		var avroType = node.avroType;
+		for (int i = 0; i < type.length(); i++) {
+			node = node.getChild(type.charAt(i));
+			if (node == null) break;
+			if (node.avroType != null) {
+				avroType = node.avroType;
+			}
+		}
+		return avroType;
+	}
+	
+	private static class Node {
+		private char[] keys = new char[0];
+		private Node[] children = new Node[0];
+		private String avroType;
+		
+		Node getChild(char key) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) return children[i];
+			}
+			return null;
+		}
+		
+		Node getOrAddChild(char key) {
+			var child = getChild(key);
+			if (child == null) {
+				child = new Node();
+				keys = Arrays.copyOf(keys, keys.length + 1);
+				children = Arrays.copyOf(children, children.length + 1);
+				keys[keys.length - 1] = key;
+				children[children.length - 1] = child;
+			}
+			return child;
+		}
+	}
+}
@@ -1,10 +1,35 @@
 package com.wn.dbml.avro;
 
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
+/**
+ * Maps DBML column types to Avro types.
+ * Memoizes the mappings of up to a maximum number of distinct column types.
+ * It is thread-safe, so a single instance can be shared by all translators using the same config.
+ */
 public class TypeMapper {
+	/**
+	 * The default maximum number of memoized column types.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
 	private static final Pattern DECIMAL_ARGS = Pattern.compile("\\(\\s*(\\d+)\\s*,?\\s*(\\d*)\\s*\\)");
+	private static final Pattern PRECISION_ARG = Pattern.compile("\\(\\s*(\\d{1,2})\\s*\\)");
+	private static final Pattern FIXED_BINARY = Pattern.compile("binary\\s*\\(\\s*(\\d{1,9})\\s*\\)");
+	/**
+	 * The column types narrowed to int by the compact encoding profile.
+	 */
+	private static final Set<String> SMALL_INTEGER_TYPES = Set.of("smallint", "tinyint");
+	/**
+	 * The precision of millis, the largest precision of times and timestamps encoded in millis by the compact encoding profile.
+	 */
+	private static final int MILLIS_PRECISION = 3;
 	private static final Map<String, String> LOGICAL_TYPES = Map.of(
 			"decimal", "bytes",
 			"uuid", "string",
@@ -18,46 +43,178 @@ public class TypeMapper {
 			"duration", "fixed"
 	);
 	private final Config config;
+	private final TypeIndex typeIndex;
+	private final int cacheSize;
+	private final Map<String, Mapping> cache = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
 	
 	public TypeMapper(Config config) {
+		this(config, DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * @param cacheSize The maximum number of memoized column types, or 0 to disable memoization
+	 */
+	public TypeMapper(Config config, int cacheSize) {
+		if (cacheSize < 0) throw new IllegalArgumentException("Cache size must be zero or a positive integer");
 		this.config = config;
+		this.typeIndex = new TypeIndex(config.typeMappings());
+		this.cacheSize = cacheSize;
 	}
 	
+	/**
+	 * Maps a DBML column type to an Avro type.
+	 * If the column type starts with multiple DBML types of the type mappings, the longest one wins.
+	 *
+	 * @return the Avro type in JSON format
+	 */
 	public String map(String columnType) {
-		var type = config.normalize(columnType);
-		var avroType = config.typeMappings().entrySet().stream()
-				.filter(e -> e.getValue().stream().anyMatch(type::startsWith))
-				.findAny()
-				.map(Map.Entry::getKey)
-				.orElseThrow(() -> new IllegalArgumentException("Unmapped type: " + columnType));
+		return getMapping(columnType).json();
+	}
+	
+	/**
+	 * Resolves the Avro type of a DBML column type.
+	 *
+	 * @see #map(String)
+	 */
+	public AvroType resolve(String columnType) {
+		return getMapping(columnType).type();
+	}
+	
+	/**
+	 * Returns the number of mappings served from the memoized column types.
+	 */
+	public long getCacheHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * Returns the number of mappings that had to be computed.
+	 */
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * Returns the ratio of mappings served from the memoized column types, or 0 if nothing has been mapped yet.
+	 */
+	public double getCacheHitRatio() {
+		long hits = getCacheHits();
+		long total = hits + getCacheMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+	
+	/**
+	 * Resolves the Avro type of a DBML column type together with its JSON format.
+	 *
+	 * @see #map(String)
+	 */
+	Mapping getMapping(String columnType) {
+		var mapping = cache.get(columnType);
+		if (mapping != null) {
+			hits.increment();
+			return mapping;
+		}
+		misses.increment();
+		var type = computeType(columnType);
+		mapping = new Mapping(type, type.toJson());
+		if (cache.size() < cacheSize) {
+			cache.putIfAbsent(columnType, mapping);
+		}
+		return mapping;
+	}
+	
+	private AvroType computeType(String columnType) {
+		var normalizedType = config.normalize(columnType);
+		var avroType = typeIndex.find(normalizedType);
+		if (config.encodingProfile() == EncodingProfile.COMPACT) {
+			return computeCompactType(columnType, normalizedType, avroType);
+		}
+		return computeType(columnType, avroType);
+	}
+	
+	private AvroType computeType(String columnType, String avroType) {
+		if (avroType == null) {
+			throw new IllegalArgumentException("Unmapped type: " + columnType);
+		}
 		if (LOGICAL_TYPES.containsKey(avroType)) {
-			return "{\"type\": \"%s\", \"logicalType\": \"%s\"%s}"
-					.formatted(LOGICAL_TYPES.get(avroType), avroType, getAdditionalAttributes(columnType, avroType));
+			return new AvroType(LOGICAL_TYPES.get(avroType), avroType, getAdditionalAttributes(columnType, avroType));
+		}
+		return new AvroType(avroType, null, Map.of());
+	}
+	
+	/**
+	 * Refines the mapped Avro type according to the compact encoding profile.
+	 *
+	 * @see EncodingProfile#COMPACT
+	 */
+	private AvroType computeCompactType(String columnType, String normalizedType, String avroType) {
+		if (SMALL_INTEGER_TYPES.stream().anyMatch(normalizedType::startsWith)) {
+			return new AvroType("int", null, Map.of());
 		}
-		return avroType;
+		if (avroType == null) {
+			throw new IllegalArgumentException("Unmapped type: " + columnType);
+		}
+		switch (avroType) {
+			case "decimal" -> {
+				var attributes = new LinkedHashMap<>(getAdditionalAttributes(columnType, avroType));
+				attributes.put("size", decimalBytes(attributes.get("precision")));
+				return new AvroType("fixed", avroType, Collections.unmodifiableMap(attributes));
+			}
+			case "bytes" -> {
+				var matcher = FIXED_BINARY.matcher(normalizedType);
+				if (matcher.lookingAt()) {
+					var size = Integer.parseInt(matcher.group(1));
+					if (size <= 0) throw new IllegalArgumentException("Size must be a positive integer greater than zero.");
+					return new AvroType("fixed", null, Map.of("size", size));
+				}
+			}
+			case "time-millis", "time-micros", "timestamp-millis", "timestamp-micros", "local-timestamp-millis", "local-timestamp-micros" -> {
+				var matcher = PRECISION_ARG.matcher(normalizedType);
+				if (matcher.find()) {
+					var unit = Integer.parseInt(matcher.group(1)) <= MILLIS_PRECISION ? "-millis" : "-micros";
+					avroType = avroType.substring(0, avroType.lastIndexOf('-')) + unit;
+				}
+			}
+			default -> {
+			}
+		}
+		return computeType(columnType, avroType);
 	}
 	
-	private String getAdditionalAttributes(String columnType, String avroType) {
+	/**
+	 * Returns the minimal number of bytes of the two's complement of all unscaled values of the precision,
+	 * i.e. the size of a fixed decimal.
+	 */
+	static int decimalBytes(int precision) {
+		return BigInteger.TEN.pow(precision).subtract(BigInteger.ONE).bitLength() / 8 + 1;
+	}
+	
+	private Map<String, Integer> getAdditionalAttributes(String columnType, String avroType) {
 		if (avroType.equals("decimal")) {
 			var matcher = DECIMAL_ARGS.matcher(columnType);
 			if (matcher.find()) {
 				var precision = matcher.group(1);
 				var group2 = matcher.group(2);
 				var scale = group2.isEmpty() ? String.valueOf(config.defaultScale()) : group2;
-				validateDecimalArgs(precision, scale);
-				return ", \"precision\": %s, \"scale\": %s".formatted(precision, scale);
+				var attributes = new LinkedHashMap<String, Integer>();
+				attributes.put("precision", parseDecimalArg(precision, precision, scale));
+				attributes.put("scale", parseDecimalArg(scale, precision, scale));
+				validateDecimalArgs(attributes.get("precision"), attributes.get("scale"));
+				return Collections.unmodifiableMap(attributes);
 			} else {
 				throw new IllegalArgumentException("Unspecified precision for type decimal");
 			}
 		} else if (avroType.equals("duration")) {
-			return ", \"size\": 12";
+			return Map.of("size", 12);
 		}
-		return "";
+		return Map.of();
 	}
 	
-	private void validateDecimalArgs(String precision, String scale) {
+	private int parseDecimalArg(String arg, String precision, String scale) {
 		try {
-			validateDecimalArgs(Integer.parseInt(precision), Integer.parseInt(scale));
+			return Integer.parseInt(arg);
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException("Decimal arguments must be integers: (%s, %s)".formatted(precision, scale), e);
 		}
@@ -69,4 +226,83 @@ public class TypeMapper {
 		if (scale > precision)
 			throw new IllegalArgumentException("Scale must be less than or equal to the precision.");
 	}
+	
+	/**
+	 * An Avro type and its JSON format.
+	 */
+	record Mapping(AvroType type, String json) {
+	}
+	
+	/**
+	 * An Avro type.
+	 *
+	 * @param type        The primitive or complex Avro type.
+	 * @param logicalType The logical type annotating the type, or null.
+	 * @param attributes  The additional attributes of the type, e.g. precision and scale of a decimal or the size of a fixed.
+	 */
+	public record AvroType(
+			String type,
+			String logicalType,
+			Map<String, Integer> attributes
+	) {
+		/**
+		 * Returns the type in JSON format.
+		 */
+		public String toJson() {
+			if (logicalType == null && attributes.isEmpty()) {
+				return type;
+			}
+			var sb = new StringBuilder("{\"type\": \"").append(type).append('"');
+			if (type.equals("fixed")) {
+				sb.append(", \"name\": \"").append(name()).append('"');
+			}
+			if (logicalType != null) {
+				sb.append(", \"logicalType\": \"").append(logicalType).append('"');
+			}
+			attributes.forEach((name, value) -> sb.append(", \"").append(name).append("\": ").append(value));
+			return sb.append('}').toString();
+		}
+		
+		/**
+		 * Returns the name of a fixed type, which is derived from its logical type and attributes,
+		 * so that equal types share a name, e.g. {@code duration}, {@code decimal9_2} or {@code fixed16}.
+		 *
+		 * @return the name or null, if the type is not fixed
+		 */
+		public String name() {
+			if (!type.equals("fixed")) {
+				return null;
+			}
+			if (logicalType == null) {
+				return "fixed" + attributes.get("size");
+			}
+			if (logicalType.equals("decimal")) {
+				return "decimal" + attributes.get("precision") + '_' + attributes.get("scale");
+			}
+			return logicalType;
+		}
+		
+		/**
+		 * Returns the type in Avro's Parsing Canonical Form, which omits logical types.
+		 *
+		 * @see #toCanonicalJson(String)
+		 */
+		public String toCanonicalJson() {
+			return toCanonicalJson(null);
+		}
+		
+		/**
+		 * Returns the type in Avro's Parsing Canonical Form, which omits logical types.
+		 * The name of a fixed type is qualified by the namespace.
+		 *
+		 * @param namespace the namespace of the enclosing record, or null
+		 */
+		public String toCanonicalJson(String namespace) {
+			if (type.equals("fixed")) {
+				var fullName = namespace == null ? name() : namespace + '.' + name();
+				return "{\"name\":\"" + fullName + "\",\"type\":\"fixed\",\"size\":" + attributes.get("size") + "}";
+			}
+			return '"' + type + '"';
+		}
+	}
 }
@@ -0,0 +1,24 @@
+package com.wn.dbml.avro;
+
+import java.util.List;
+
+/**
+ * Thrown at the end of a translation that collected violations.
+ *
+ * @see ValidationMode#COLLECT
+ */
+public class ValidationException extends IllegalArgumentException {
+	private final List<String> violations;
+	
+	public ValidationException(List<String> violations) {
+		super(violations.size() + " violation(s):" + System.lineSeparator() + String.join(System.lineSeparator(), violations));
+		this.violations = List.copyOf(violations);
+	}
+	
+	/**
+	 * Returns the messages of all violations, in order of occurrence.
+	 */
+	public List<String> getViolations() {
+		return violations;
+	}
+}
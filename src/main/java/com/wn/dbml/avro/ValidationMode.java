@@ -0,0 +1,17 @@
+package com.wn.dbml.avro;
+
+/**
+ * Determines how the translator reacts to violations, like invalid names or unmapped types.
+ *
+ * @see DbmlAvroTranslator#withValidationMode(ValidationMode)
+ */
+public enum ValidationMode {
+	/**
+	 * Throws an {@link IllegalArgumentException} on the first violation.
+	 */
+	FAIL_FAST,
+	/**
+	 * Collects all violations and throws a {@link ValidationException} at the end of the translation.
+	 */
+	COLLECT
+}
@@ -0,0 +1,60 @@
+package com.wn.dbml.avro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the violations of a translation according to the validation mode.
+ */
+class Violations {
+	private final ValidationMode mode;
+	private final String context;
+	private final List<String> messages = new ArrayList<>(0);
+	
+	Violations(ValidationMode mode) {
+		this(mode, null);
+	}
+	
+	private Violations(ValidationMode mode, String context) {
+		this.mode = mode;
+		this.context = context;
+	}
+	
+	/**
+	 * Creates an empty report, whose messages are prefixed with the context, e.g. a table name.
+	 */
+	Violations forContext(String context) {
+		return new Violations(mode, context);
+	}
+	
+	void add(String message) {
+		if (mode == ValidationMode.FAIL_FAST) {
+			throw new IllegalArgumentException(message);
+		}
+		messages.add(context == null ? message : context + ": " + message);
+	}
+	
+	void add(String detail, IllegalArgumentException e) {
+		if (mode == ValidationMode.FAIL_FAST) {
+			throw e;
+		}
+		add(detail + ": " + e.getMessage());
+	}
+	
+	void addAll(Violations violations) {
+		messages.addAll(violations.messages);
+	}
+	
+	boolean isEmpty() {
+		return messages.isEmpty();
+	}
+	
+	/**
+	 * Throws a validation exception containing all collected violations, if there are any.
+	 */
+	void check() {
+		if (!messages.isEmpty()) {
+			throw new ValidationException(messages);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards the bytes allocated by the translation hot path against the baseline in {@value #BASELINE}.
+ * A measurement fails, if it exceeds its baseline by more than {@value #TOLERANCE} plus {@value #SLACK} bytes.
+ * As the allocations depend on the JVM, the budgets are only checked with
+ * {@code mvn test -Dtest=AllocationBudgetTest -Dallocation.check=true}, and skipped otherwise.
+ * <p>
+ * After an intended change, record a new baseline with {@code mvn test -Dtest=AllocationBudgetTest -Dallocation.record=true}
+ * on the JVM the budgets are checked with, and commit the updated {@value #BASELINE}.
+ */
+class AllocationBudgetTest {
+	private static final String BASELINE = "allocation-baseline.properties";
+	private static final Path BASELINE_FILE = Path.of("src/test/resources", BASELINE);
+	private static final boolean CHECK = Boolean.getBoolean("allocation.check");
+	private static final boolean RECORD = Boolean.getBoolean("allocation.record");
+	private static final double TOLERANCE = 0.2;
+	private static final int SLACK = 16;
+	private static final int WARMUP = 200;
+	private static final int ROUNDS = 5;
+	private static final int ITERATIONS = 20;
+	private static final String[] COLUMN_TYPES = {
+			"bigint [not null]", "integer", "varchar(255) [not null]", "text", "boolean [not null]",
+			"decimal(18,4)", "timestamp [not null]", "date", "uuid [not null]", "Status"
+	};
+	private static final String[] MAPPED_TYPES = {
+			"bigint", "integer", "varchar(255)", "text", "boolean", "decimal(18,4)", "timestamp", "date", "uuid"
+	};
+	private static final int NARROW_TABLES = 500;
+	private static final int NARROW_COLUMNS = 4;
+	private static final int WIDE_TABLES = 10;
+	private static final int WIDE_COLUMNS = 200;
+	
+	@Test
+	void translatePerTable() {
+		var translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build());
+		var dbml = ParsedDbml.of(DbmlParser.parse(model(NARROW_TABLES, NARROW_COLUMNS)));
+		var bytes = measure(() -> translator.translate(dbml, null));
+		assertWithinBudget("translate.table", bytes / NARROW_TABLES);
+	}
+	
+	@Test
+	void translatePerColumn() {
+		var translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build());
+		var dbml = ParsedDbml.of(DbmlParser.parse(model(WIDE_TABLES, WIDE_COLUMNS)));
+		var bytes = measure(() -> translator.translate(dbml, null));
+		assertWithinBudget("translate.column", bytes / (WIDE_TABLES * WIDE_COLUMNS));
+	}
+	
+	@Test
+	void mapMemoized() {
+		var mapper = new TypeMapper(Config.builder().build());
+		var bytes = measure(() -> mapAll(mapper));
+		assertWithinBudget("typeMapper.map", bytes / MAPPED_TYPES.length);
+	}
+	
+	@Test
+	void mapUncached() {
+		var mapper = new TypeMapper(Config.builder().build(), 0);
+		var bytes = measure(() -> mapAll(mapper));
+		assertWithinBudget("typeMapper.mapUncached", bytes / MAPPED_TYPES.length);
+	}
+	
+	private static Object mapAll(TypeMapper mapper) {
+		String last = null;
+		for (var type : MAPPED_TYPES) {
+			last = mapper.map(type);
+		}
+		return last;
+	}
+	
+	/**
+	 * Creates a model of tables with columns of all mapped types and an enum.
+	 */
+	private static String model(int tables, int columns) {
+		var sb = new StringBuilder();
+		for (int t = 0; t < tables; t++) {
+			sb.append("Table T").append(t).append(" {\n");
+			for (int c = 0; c < columns; c++) {
+				sb.append("  c").append(c).append(' ').append(COLUMN_TYPES[c % COLUMN_TYPES.length]).append('\n');
+			}
+			sb.append("}\n\n");
+		}
+		return sb.append("Enum Status {\n  PENDING\n  SETTLED\n}\n").toString();
+	}
+	
+	/**
+	 * Returns the least number of bytes allocated by one invocation of the action within a round,
+	 * after warming it up, so that JIT compilation and escape analysis have settled.
+	 */
+	private static double measure(Action action) {
+		assumeTrue(CHECK || RECORD, "Allocation budgets are only checked with -Dallocation.check=true");
+		var bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Thread allocation measurement is unsupported");
+		var threadBean = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled(),
+				"Thread allocation measurement is disabled");
+		var threadId = Thread.currentThread().getId();
+		Object sink = null;
+		for (int i = 0; i < WARMUP; i++) {
+			sink = action.run();
+		}
+		var least = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			var start = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < ITERATIONS; i++) {
+				sink = action.run();
+			}
+			least = Math.min(least, threadBean.getThreadAllocatedBytes(threadId) - start);
+		}
+		assertNotNull(sink);
+		return (double) least / ITERATIONS;
+	}
+	
+	private static void assertWithinBudget(String name, double bytes) {
+		if (RECORD) {
+			record(name, Math.round(bytes));
+			return;
+		}
+		var baseline = loadBaseline().getProperty(name);
+		assertNotNull(baseline, "No baseline of " + name + " in " + BASELINE);
+		var budget = Long.parseLong(baseline) * (1 + TOLERANCE) + SLACK;
+		assertTrue(bytes <= budget, () -> "%s allocated %.0f bytes, exceeding its budget of %.0f bytes (baseline %s)"
+				.formatted(name, bytes, budget, baseline));
+	}
+	
+	private static Properties loadBaseline() {
+		var properties = new Properties();
+		try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/" + BASELINE)) {
+			if (in != null) {
+				properties.load(in);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return properties;
+	}
+	
+	/**
+	 * Updates a single entry of the baseline file, keeping the others.
+	 */
+	private static synchronized void record(String name, long bytes) {
+		try {
+			var properties = new Properties();
+			if (Files.exists(BASELINE_FILE)) {
+				try (var in = Files.newInputStream(BASELINE_FILE)) {
+					properties.load(in);
+				}
+			}
+			properties.setProperty(name, String.valueOf(bytes));
+			var sb = new StringBuilder()
+					.append("# Bytes allocated per unit by the translation hot path, guarded by AllocationBudgetTest.\n")
+					.append("# Record with: mvn test -Dtest=AllocationBudgetTest -Dallocation.record=true\n");
+			new TreeMap<>(properties).forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+			Files.writeString(BASELINE_FILE, sb.toString());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@FunctionalInterface
+	private interface Action {
+		Object run();
+	}
+}
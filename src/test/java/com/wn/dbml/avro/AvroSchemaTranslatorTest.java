@@ -0,0 +1,127 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvroSchemaTranslatorTest {
+	@Test
+	void translateLikeJson() {
+		var dbml = """
+				Table User as "U" {
+					name varchar(255) [not null]
+					favorite_number integer [note: "should be prime"]
+					balance decimal(9,2)
+					id uuid [not null]
+					birthday date
+					created timestamp [not null]
+					favorite_suit Suit
+					least_favorite_suit Suit
+					note : "table of users"
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var config = Config.builder().setNamespace("com.example").build();
+		var schemas = new AvroSchemaTranslator(config).translate(dbml);
+		var results = new DbmlAvroTranslator(config).translate(dbml);
+		assertEquals(results.size(), schemas.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(new Schema.Parser().parse(results.get(i).schema()), schemas.get(i));
+		}
+	}
+	
+	@Test
+	void translateLogicalTypes() {
+		var dbml = """
+				Table Payment {
+					amount decimal(9,2) [not null]
+					reference uuid [not null]
+					due date [not null]
+					created timestamp [not null]
+				}""";
+		var record = new AvroSchemaTranslator(Config.builder().build()).translate(dbml).get(0);
+		assertEquals(LogicalTypes.decimal(9, 2), record.getField("amount").schema().getLogicalType());
+		assertEquals(LogicalTypes.uuid(), record.getField("reference").schema().getLogicalType());
+		assertEquals(LogicalTypes.date(), record.getField("due").schema().getLogicalType());
+		assertEquals(LogicalTypes.timestampMicros(), record.getField("created").schema().getLogicalType());
+	}
+	
+	@Test
+	void translateInTurkishLocale() {
+		var dbml = """
+				Table User {
+					id integer [not null]
+					active boolean [not null]
+				}""";
+		var locale = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			var record = new AvroSchemaTranslator(Config.builder().build()).translate(dbml).get(0);
+			assertEquals(Schema.Type.INT, record.getField("id").schema().getType());
+			assertEquals(Schema.Type.BOOLEAN, record.getField("active").schema().getType());
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+	
+	@Test
+	void translateCompactTypes() {
+		var dbml = """
+				Table Payment {
+					amount decimal(9,2) [not null]
+					fee decimal(9,2) [not null]
+					total decimal(18,2)
+					hash binary(32) [not null]
+					created timestamp(3) [not null]
+				}""";
+		var config = Config.builder().setNamespace("com.example").setEncodingProfile(EncodingProfile.COMPACT).build();
+		var record = new AvroSchemaTranslator(config).translate(dbml).get(0);
+		var amount = record.getField("amount").schema();
+		assertEquals(Schema.Type.FIXED, amount.getType());
+		assertEquals(4, amount.getFixedSize());
+		assertEquals(LogicalTypes.decimal(9, 2), amount.getLogicalType());
+		assertEquals(8, record.getField("total").schema().getTypes().get(0).getFixedSize());
+		assertEquals(32, record.getField("hash").schema().getFixedSize());
+		assertEquals(LogicalTypes.timestampMillis(), record.getField("created").schema().getLogicalType());
+		assertEquals(record, new Schema.Parser().parse(record.toString()));
+	}
+	
+	@Test
+	void shareNamedTypes() {
+		var dbml = """
+				Table Player {
+					favorite_suit Suit
+				}
+				
+				Table Card {
+					suit Suit [not null]
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var schemas = new AvroSchemaTranslator(Config.builder().build()).translate(dbml);
+		assertEquals(3, schemas.size());
+		var suit = schemas.get(2);
+		assertSame(suit, schemas.get(0).getField("favorite_suit").schema().getTypes().get(0));
+		assertSame(suit, schemas.get(1).getField("suit").schema());
+	}
+	
+	@Test
+	void failName() {
+		var dbml = """
+				Table 1User {
+					id integer
+				}""";
+		assertThrows(IllegalArgumentException.class, () ->
+				new AvroSchemaTranslator(Config.builder().build()).translate(dbml));
+	}
+}
@@ -0,0 +1,150 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.avro.CompatibilityChecker.ChangeKind;
+import com.wn.dbml.avro.CompatibilityChecker.Status;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompatibilityCheckerTest {
+	private static final String OLD = """
+			Table User {
+				id integer [not null]
+				name varchar
+				suit Suit
+			}
+			
+			Table Log {
+				message varchar
+			}
+			
+			Enum Suit {
+				SPADES
+				HEARTS
+			}""";
+	private final CompatibilityChecker checker = new CompatibilityChecker(Config.builder().build());
+	
+	@Test
+	void unchanged() {
+		var report = checker.check(OLD, OLD);
+		assertEquals(List.of(Status.UNCHANGED, Status.UNCHANGED, Status.UNCHANGED),
+				report.verdicts().stream().map(CompatibilityChecker.Verdict::status).toList());
+		assertTrue(report.isBackwardCompatible());
+		assertTrue(report.isForwardCompatible());
+	}
+	
+	@Test
+	void promoteType() {
+		var report = checker.check(OLD, OLD.replace("id integer", "id bigint"));
+		var verdict = report.get("User");
+		assertEquals(Status.CHANGED, verdict.status());
+		assertEquals(Status.UNCHANGED, report.get("Log").status());
+		assertEquals(ChangeKind.TYPE_PROMOTED, verdict.changes().get(0).kind());
+		assertTrue(verdict.isBackwardCompatible());
+		assertFalse(verdict.isForwardCompatible());
+	}
+	
+	@Test
+	void addNullableField() {
+		var verdict = checker.check(OLD, OLD.replace("name varchar\n", "name varchar\n\t\temail varchar\n")).get("User");
+		assertEquals(ChangeKind.NULLABLE_FIELD_ADDED, verdict.changes().get(0).kind());
+		assertEquals("email", verdict.changes().get(0).field());
+		assertFalse(verdict.isBackwardCompatible());
+		assertTrue(verdict.isForwardCompatible());
+	}
+	
+	@Test
+	void addSymbol() {
+		var report = checker.check(OLD, OLD.replace("HEARTS\n", "HEARTS\n\t\tCLUBS\n"));
+		var user = report.get("User");
+		assertEquals(Status.CHANGED, user.status());
+		assertEquals(ChangeKind.SYMBOLS_ADDED, user.changes().get(0).kind());
+		assertEquals("CLUBS", user.changes().get(0).description());
+		assertEquals(Status.UNCHANGED, report.get("Log").status());
+		var suit = report.get("Suit");
+		assertTrue(suit.isBackwardCompatible());
+		assertFalse(suit.isForwardCompatible());
+	}
+	
+	@Test
+	void renameWithAlias() {
+		var report = checker.check(OLD, OLD.replace("Table Log {", "Table Event as \"Log\" {"));
+		var verdict = report.get("Event");
+		assertEquals(Status.CHANGED, verdict.status());
+		assertNull(report.get("Log"));
+		assertEquals(ChangeKind.RECORD_RENAMED, verdict.changes().get(0).kind());
+		assertTrue(verdict.isBackwardCompatible());
+		assertFalse(verdict.isForwardCompatible());
+	}
+	
+	@Test
+	void addAndRemoveTables() {
+		var report = checker.check(OLD, OLD.replace("Table Log {", "Table Audit {"));
+		assertEquals(Status.ADDED, report.get("Audit").status());
+		assertEquals(Status.REMOVED, report.get("Log").status());
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"id bigint [not null]",
+			"id double [not null]",
+			"id varchar [not null]",
+			"id integer",
+			"id decimal(9,2) [not null]",
+			"id date [not null]",
+			"id Suit [not null]",
+	})
+	void agreeWithAvro(String newColumn) {
+		var newDbml = OLD.replace("id integer [not null]", newColumn);
+		var verdict = checker.check(OLD, newDbml).get("User");
+		var translator = new AvroSchemaTranslator(Config.builder().build());
+		Schema oldSchema = translator.translate(OLD).get(0);
+		Schema newSchema = translator.translate(newDbml).get(0);
+		assertEquals(isCompatible(newSchema, oldSchema), verdict.isBackwardCompatible(), "backward");
+		assertEquals(isCompatible(oldSchema, newSchema), verdict.isForwardCompatible(), "forward");
+	}
+	
+	@ParameterizedTest
+	@CsvSource({"'decimal(10,2)', 'decimal(12,2)'", "timestamp, timestamptz"})
+	void changeLogicalType(String oldType, String newType) {
+		var oldDbml = OLD.replace("name varchar", "name " + oldType);
+		var newDbml = OLD.replace("name varchar", "name " + newType);
+		var translator = new AvroSchemaTranslator(Config.builder().build());
+		Schema oldSchema = translator.translate(oldDbml).get(0);
+		Schema newSchema = translator.translate(newDbml).get(0);
+		assertTrue(isCompatible(newSchema, oldSchema));
+		assertTrue(isCompatible(oldSchema, newSchema));
+		for (var verdict : List.of(checker.check(oldDbml, newDbml).get("User"), checker.check(newDbml, oldDbml).get("User"))) {
+			assertEquals(ChangeKind.LOGICAL_TYPE_CHANGED, verdict.changes().get(0).kind());
+			assertTrue(verdict.isBackwardCompatible());
+			assertTrue(verdict.isForwardCompatible());
+		}
+	}
+	
+	@Test
+	void changeFixedLogicalType() {
+		var config = Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build();
+		var oldDbml = OLD.replace("name varchar", "name decimal(10,2)");
+		var newDbml = OLD.replace("name varchar", "name decimal(12,2)");
+		var verdict = new CompatibilityChecker(config).check(oldDbml, newDbml).get("User");
+		assertEquals(ChangeKind.LOGICAL_TYPE_CHANGED, verdict.changes().get(0).kind());
+		var translator = new AvroSchemaTranslator(config);
+		Schema oldSchema = translator.translate(oldDbml).get(0);
+		Schema newSchema = translator.translate(newDbml).get(0);
+		assertEquals(isCompatible(newSchema, oldSchema), verdict.isBackwardCompatible(), "backward");
+		assertEquals(isCompatible(oldSchema, newSchema), verdict.isForwardCompatible(), "forward");
+		assertFalse(verdict.isBackwardCompatible());
+	}
+	
+	private static boolean isCompatible(Schema reader, Schema writer) {
+		return SchemaCompatibility.checkReaderWriterCompatibility(reader, writer).getType()
+				== SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE;
+	}
+}
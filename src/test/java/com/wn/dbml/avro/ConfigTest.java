@@ -19,6 +19,14 @@ class ConfigTest {
 		assertEquals(3, config.defaultScale());
 	}
 	
+	@Test
+	void setEncodingProfile() {
+		assertEquals(EncodingProfile.STANDARD, Config.builder().build().encodingProfile());
+		var config = Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build();
+		assertEquals(EncodingProfile.COMPACT, config.encodingProfile());
+		assertThrows(IllegalArgumentException.class, () -> Config.builder().setEncodingProfile(null));
+	}
+	
 	@Test
 	void failScaleNegative() {
 		assertThrows(IllegalArgumentException.class, () ->Config.builder().setDefaultScale(-1).build());
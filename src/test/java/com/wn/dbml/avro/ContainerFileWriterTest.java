@@ -0,0 +1,147 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerFileWriterTest {
+	private static final String DBML = """
+			Table User {
+				id integer [not null]
+				name varchar
+			}""";
+	
+	@Test
+	void writeBlocks() throws IOException {
+		var schema = translate().get(0);
+		var out = new ByteArrayOutputStream();
+		try (var writer = ContainerFileWriter.builder().setSyncInterval(1024).setCodec("deflate").setQueueCapacity(2).open(schema, out)) {
+			for (int i = 0; i < 1000; i++) {
+				var record = new GenericData.Record(schema);
+				record.put("id", i);
+				record.put("name", i % 2 == 0 ? "user " + i : null);
+				writer.append(record);
+			}
+		}
+		
+		var syncs = new HashSet<Long>();
+		var records = new ArrayList<GenericRecord>();
+		try (var reader = new DataFileReader<>(new SeekableByteArrayInput(out.toByteArray()), new GenericDatumReader<GenericRecord>())) {
+			assertEquals("deflate", reader.getMetaString("avro.codec"));
+			while (reader.hasNext()) {
+				records.add(reader.next());
+				syncs.add(reader.previousSync());
+			}
+		}
+		assertEquals(1000, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals(i, records.get(i).get("id"));
+		}
+		assertNull(records.get(999).get("name"));
+		assertTrue(syncs.size() > 5, "blocks: " + syncs.size());
+	}
+	
+	@Test
+	void writeEncodedResult(@TempDir Path directory) throws IOException {
+		var result = new DbmlAvroTranslator(Config.builder().build()).translate(DBML).get(0);
+		try (var writer = ContainerFileWriter.builder().open(result, directory)) {
+			writer.append(out -> {
+				out.writeInt(7);
+				out.writeIndex(0);
+				out.writeString("seven");
+			});
+		}
+		
+		var bytes = Files.readAllBytes(directory.resolve("User.avro"));
+		try (var reader = new DataFileReader<>(new SeekableByteArrayInput(bytes), new GenericDatumReader<GenericRecord>())) {
+			var record = reader.next();
+			assertEquals(7, record.get("id"));
+			assertEquals("seven", record.get("name").toString());
+			assertFalse(reader.hasNext());
+		}
+	}
+	
+	@Test
+	void discardFailedRecord() throws IOException {
+		var schema = translate().get(0);
+		var out = new ByteArrayOutputStream();
+		try (var writer = ContainerFileWriter.builder().open(schema, out)) {
+			writer.append(encoder -> {
+				encoder.writeInt(1);
+				encoder.writeIndex(1);
+			});
+			assertThrows(IOException.class, () -> writer.append(encoder -> {
+				encoder.writeInt(2);
+				throw new IOException("failed");
+			}));
+			var record = new GenericData.Record(schema);
+			record.put("id", null);
+			assertThrows(RuntimeException.class, () -> writer.append(record));
+			writer.append(encoder -> {
+				encoder.writeInt(3);
+				encoder.writeIndex(1);
+			});
+		}
+		
+		var ids = new ArrayList<Object>();
+		try (var reader = new DataFileReader<>(new SeekableByteArrayInput(out.toByteArray()), new GenericDatumReader<GenericRecord>())) {
+			reader.forEach(record -> ids.add(record.get("id")));
+		}
+		assertEquals(List.of(1, 3), ids);
+	}
+	
+	@Test
+	void closeStreamOnFailedOpen() {
+		var closed = new boolean[1];
+		var out = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("failed");
+			}
+			
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		assertThrows(IOException.class, () -> ContainerFileWriter.builder().setBufferSize(1).open(translate().get(0), out));
+		assertTrue(closed[0]);
+	}
+	
+	@Test
+	void failAfterClose() throws IOException {
+		var writer = ContainerFileWriter.builder().open(translate().get(0), new ByteArrayOutputStream());
+		writer.close();
+		assertThrows(IOException.class, () -> writer.append(out -> out.writeInt(1)));
+	}
+	
+	@Test
+	void codecs() {
+		assertTrue(ContainerFileWriter.isAvailable("null"));
+		assertTrue(ContainerFileWriter.isAvailable("deflate"));
+		assertFalse(ContainerFileWriter.isAvailable("unknown"));
+		var builder = ContainerFileWriter.builder();
+		assertThrows(IllegalArgumentException.class, () -> builder.setCodec("unknown"));
+		assertThrows(IllegalArgumentException.class, () -> builder.setSyncInterval(0));
+	}
+	
+	private static List<Schema> translate() {
+		return new AvroSchemaTranslator(Config.builder().build()).translate(DBML);
+	}
+}
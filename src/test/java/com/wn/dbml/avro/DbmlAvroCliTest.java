@@ -0,0 +1,176 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbmlAvroCliTest {
+	@TempDir
+	Path dir;
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+	
+	@Test
+	void translateDirectory() throws IOException {
+		var input = Files.createDirectories(dir.resolve("input/nested"));
+		Files.writeString(dir.resolve("input/users.dbml"), """
+				Table users {
+				  id integer
+				}
+				""");
+		Files.writeString(input.resolve("orders.dbml"), """
+				Table orders {
+				  id integer
+				  status order_status
+				}
+				
+				Enum order_status {
+				  created
+				}
+				""");
+		Files.writeString(input.resolve("ignored.txt"), "Table ignored {\n}\n");
+		var output = dir.resolve("output");
+		
+		var exitCode = run("-n", "com.example", "-t", "2", "-o", output.toString(), dir.resolve("input").toString());
+		
+		assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+		try (var files = Files.list(output)) {
+			assertEquals(List.of("order_status.avsc", "orders.avsc", "users.avsc"),
+					files.map(p -> p.getFileName().toString()).sorted().toList());
+		}
+		assertTrue(Files.readString(output.resolve("users.avsc")).contains("\"namespace\": \"com.example\""));
+		assertTrue(out.toString(StandardCharsets.UTF_8).contains("Total: 2 file(s), 3 schema(s), 0 failed"));
+	}
+	
+	@Test
+	void generateJava() throws IOException {
+		var file = Files.writeString(dir.resolve("users.dbml"), "Table users {\n  id integer [not null]\n}\n");
+		
+		var exitCode = run("-j", "com.example", "-o", dir.toString(), file.toString());
+		
+		assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+		assertTrue(Files.exists(dir.resolve("users.avsc")));
+		assertTrue(Files.readString(dir.resolve("com/example/users.java")).contains("public record users("));
+	}
+	
+	@Test
+	void translateGlob() throws IOException {
+		Files.writeString(dir.resolve("a.dbml"), "Table a {\n  id integer\n}\n");
+		Files.writeString(dir.resolve("b.sql"), "Table b {\n  id integer\n}\n");
+		
+		var files = DbmlAvroCli.findFiles(List.of(dir + "/*.dbml"));
+		
+		assertEquals(List.of(dir.resolve("a.dbml")), files);
+	}
+	
+	@Test
+	void readMapped() throws IOException {
+		var dbml = "Table ä {\n}\n".repeat(200_000);
+		var file = Files.writeString(dir.resolve("large.dbml"), dbml);
+		
+		assertEquals(dbml, DbmlAvroCli.read(file));
+	}
+	
+	@Test
+	void readSmall() throws IOException {
+		var file = Files.writeString(dir.resolve("small.dbml"), "Table ä {\n}\n");
+		
+		assertEquals("Table ä {\n}\n", DbmlAvroCli.read(file));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {16, 2 << 20})
+	void failMalformed(int size) throws IOException {
+		var bytes = new byte[size];
+		Arrays.fill(bytes, (byte) 'a');
+		bytes[size / 2] = (byte) 0xff;
+		var file = Files.write(dir.resolve("malformed.dbml"), bytes);
+		
+		assertThrows(MalformedInputException.class, () -> DbmlAvroCli.read(file));
+	}
+	
+	@Test
+	void failedFile() throws IOException {
+		var file = Files.writeString(dir.resolve("invalid.dbml"), "Table 1nvalid {\n  id integer\n}\n");
+		
+		var exitCode = run("-o", dir.toString(), file.toString());
+		
+		assertEquals(1, exitCode);
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("1nvalid"));
+		assertTrue(out.toString(StandardCharsets.UTF_8).contains("1 failed"));
+	}
+	
+	@Test
+	void failedDuplicateSchema() throws IOException {
+		var first = Files.writeString(dir.resolve("a.dbml"), "Table users {\n  id integer\n}\n");
+		var second = Files.writeString(dir.resolve("b.dbml"), "Table users {\n  name varchar\n}\n");
+		var output = dir.resolve("output");
+		
+		var exitCode = run("-t", "2", "-o", output.toString(), first.toString(), second.toString());
+		
+		assertEquals(1, exitCode);
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("Duplicate schema users"));
+		assertTrue(out.toString(StandardCharsets.UTF_8).contains("1 schema(s), 1 failed"));
+		try (var files = Files.list(output)) {
+			assertEquals(List.of(output.resolve("users.avsc")), files.toList());
+		}
+	}
+	
+	@Test
+	void typeMapping() {
+		var options = DbmlAvroCli.Options.parse(new String[]{"-m", "string=citext, ltree", "-s", "2", "schema.dbml"});
+		
+		assertEquals(List.of("schema.dbml"), options.inputs());
+		assertEquals("string", new TypeMapper(options.config()).map("ltree"));
+		assertEquals(2, options.config().defaultScale());
+	}
+	
+	@Test
+	void encodingProfile() {
+		var options = DbmlAvroCli.Options.parse(new String[]{"-p", "compact", "schema.dbml"});
+		
+		assertEquals(EncodingProfile.COMPACT, options.config().encodingProfile());
+		assertThrows(IllegalArgumentException.class, () -> DbmlAvroCli.Options.parse(new String[]{"--profile", "small", "schema.dbml"}));
+	}
+	
+	@Test
+	void invalidOption() {
+		var exitCode = run("--unknown");
+		
+		assertEquals(2, exitCode);
+		assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Unknown option: --unknown"));
+	}
+	
+	@Test
+	void missingProfile() {
+		var exitCode = run("schema.dbml", "-p");
+		
+		assertEquals(2, exitCode);
+		assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Missing value of option -p"));
+	}
+	
+	@Test
+	void invalidTypeMapping() {
+		var exitCode = run("-m", "long=int", "schema.dbml");
+		
+		assertEquals(2, exitCode);
+		assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Ambiguous type mapping"));
+	}
+	
+	private int run(String... args) {
+		return DbmlAvroCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+	}
+}
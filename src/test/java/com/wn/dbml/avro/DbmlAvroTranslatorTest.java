@@ -1,13 +1,28 @@
 package com.wn.dbml.avro;
 
 import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.opentest4j.AssertionFailedError;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -224,6 +239,395 @@ class DbmlAvroTranslatorTest {
 		assertEquals(expected.get(2), suit);
 	}
 	
+	@Test
+	void translateSchemaQualifiedEnum() {
+		var dbml = """
+				Table User {
+					favorite_suit core.Suit [not null]
+					least_favorite_suit Suit [not null]
+				}
+				
+				Enum core.Suit {
+					SPADES
+					HEARTS
+				}""";
+		var expected = """
+				{
+				  "type": "record",
+				  "name": "User",
+				  "fields": [
+				    {"name": "favorite_suit", "type": {
+				      "type": "enum",
+				      "name": "Suit",
+				      "symbols": ["SPADES", "HEARTS"]
+				    }},
+				    {"name": "least_favorite_suit", "type": "Suit"}
+				  ]
+				}""";
+		var translated = new DbmlAvroTranslator(Config.builder().build()).translate(dbml);
+		validateSchemas(translated);
+		assertEquals(expected, toMap(translated).get("User"));
+	}
+	
+	@Test
+	void failDuplicateEnum() {
+		var dbml = """
+				Enum Suit {
+					SPADES
+				}
+				
+				Enum core.Suit {
+					SPADES
+				}""";
+		assertThrows(IllegalArgumentException.class, () ->
+				new DbmlAvroTranslator(Config.builder().build()).translate(dbml));
+	}
+	
+	@Test
+	void translateStreaming() {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+					favorite_suit Suit [not null]
+				}
+				
+				Table User2 {
+					name varchar [not null]
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		var streamed = new ArrayList<DbmlAvroTranslator.Result>();
+		translator.translate(new StringReader(dbml), streamed::add);
+		assertEquals(List.of("User", "User2", "Suit"), streamed.stream().map(DbmlAvroTranslator.Result::name).toList());
+		assertEquals(translator.translate(dbml), streamed);
+	}
+	
+	@Test
+	void translateParallel() {
+		var dbml = IntStream.range(0, 50)
+				.mapToObj(i -> """
+						Table User%d {
+							name varchar [not null]
+							favorite_suit Suit
+							least_favorite_suit Suit
+						}
+						""".formatted(i))
+				.collect(Collectors.joining("\n", "", """
+						Enum Suit {
+							SPADES
+							HEARTS
+						}"""));
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		var executor = Executors.newFixedThreadPool(4);
+		try {
+			assertEquals(translator.translate(dbml), translator.translateParallel(new StringReader(dbml), executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void translateWithParallelParsing() {
+		var dbml = IntStream.range(0, 2 * ParallelParser.DEFAULT_CHUNK_SIZE / 100)
+				.mapToObj(i -> """
+						Table User%d {
+							name varchar [not null, note: 'The name { of the user']
+							favorite_suit Suit
+						}
+						""".formatted(i))
+				.collect(Collectors.joining("\n", "", """
+						Enum Suit {
+							SPADES
+							HEARTS
+						}"""));
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		var results = translator.withParallelParsing(ForkJoinPool.commonPool()).translate(new StringReader(dbml));
+		assertEquals(translator.translate(dbml), results);
+	}
+	
+	@Test
+	void failNameParallel() {
+		var dbml = """
+				Table User {
+					name varchar
+				}
+				
+				Table Üser {
+					name varchar
+				}""";
+		assertThrows(IllegalArgumentException.class, () ->
+				new DbmlAvroTranslator(Config.builder().build()).translateParallel(dbml, ForkJoinPool.commonPool()));
+	}
+	
+	@Test
+	void translateCached() {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+					favorite_suit Suit
+				}
+				
+				Table Order {
+					id integer [not null]
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var changedDbml = dbml.replace("id integer", "id bigint");
+		var cache = new MemoryTranslationCache(100);
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withCache(cache);
+		var translated = translator.translate(dbml);
+		assertEquals(0, cache.hits());
+		assertEquals(3, cache.misses());
+		assertEquals(translated, translator.translate(dbml));
+		assertEquals(3, cache.hits());
+		var changed = translator.translate(changedDbml);
+		assertEquals(5, cache.hits());
+		assertEquals(4, cache.misses());
+		assertEquals(new DbmlAvroTranslator(Config.builder().build()).translate(changedDbml), changed);
+	}
+	
+	@Test
+	void translateCachedWithChangedEnum() {
+		var dbml = """
+				Table User {
+					favorite_suit Suit
+				}
+				
+				Enum Suit {
+					SPADES
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withCache(new MemoryTranslationCache(100));
+		translator.translate(dbml);
+		var changedDbml = dbml.replace("SPADES", "HEARTS");
+		assertEquals(new DbmlAvroTranslator(Config.builder().build()).translate(changedDbml), translator.translate(changedDbml));
+	}
+	
+	@Test
+	void translateCachedWithChangedConfig() {
+		var dbml = """
+				Table User {
+					name varchar
+				}""";
+		var cache = new MemoryTranslationCache(100);
+		new DbmlAvroTranslator(Config.builder().build()).withCache(cache).translate(dbml);
+		new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build()).withCache(cache).translate(dbml);
+		assertEquals(0, cache.hits());
+	}
+	
+	@Test
+	void translateCanonicalForm() throws NoSuchAlgorithmException {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+					favorite_suit Suit
+					least_favorite_suit Suit
+					balance decimal(9,2)
+					created timestamp [not null]
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var translated = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build())
+				.withCanonicalForm("MD5", "SHA-256")
+				.translate(dbml);
+		assertEquals(2, translated.size());
+		for (var result : translated) {
+			var schema = new Schema.Parser().parse(result.schema());
+			var canonicalForm = result.canonicalForm();
+			assertEquals(SchemaNormalization.toParsingForm(schema), canonicalForm.schema());
+			assertEquals(SchemaNormalization.parsingFingerprint64(schema), canonicalForm.fingerprint());
+			assertEquals(HexFormat.of().formatHex(SchemaNormalization.parsingFingerprint("SHA-256", schema)), canonicalForm.digests().get("SHA-256"));
+			assertEquals(HexFormat.of().formatHex(SchemaNormalization.parsingFingerprint("MD5", schema)), canonicalForm.digests().get("MD5"));
+		}
+	}
+	
+	@Test
+	void translateCompactProfile() {
+		var dbml = """
+				Table Payment {
+					amount decimal(9,2) [not null]
+					fee decimal(9,2)
+					total decimal(18,2) [not null]
+					hash binary(32) [not null]
+					previous_hash binary(32)
+					span duration [not null]
+					grace duration
+					count smallint [not null]
+					created timestamp(3) [not null]
+				}""";
+		var config = Config.builder().setNamespace("com.example").setEncodingProfile(EncodingProfile.COMPACT).build();
+		var result = new DbmlAvroTranslator(config).withCanonicalForm().translate(dbml).get(0);
+		var schema = new Schema.Parser().parse(result.schema());
+		var amount = schema.getField("amount").schema();
+		assertEquals(Schema.Type.FIXED, amount.getType());
+		assertEquals("com.example.decimal9_2", amount.getFullName());
+		assertEquals(4, amount.getFixedSize());
+		assertEquals(amount, schema.getField("fee").schema().getTypes().get(0));
+		assertEquals(8, schema.getField("total").schema().getFixedSize());
+		assertEquals(32, schema.getField("hash").schema().getFixedSize());
+		assertEquals("duration", schema.getField("grace").schema().getTypes().get(0).getName());
+		assertEquals(Schema.Type.INT, schema.getField("count").schema().getType());
+		assertEquals(SchemaNormalization.toParsingForm(schema), result.canonicalForm().schema());
+		assertEquals(SchemaNormalization.parsingFingerprint64(schema), result.canonicalForm().fingerprint());
+		assertEquals(schema, new AvroSchemaTranslator(config).translate(dbml).get(0));
+	}
+	
+	@Test
+	void translateCanonicalFormCached() {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+					suit Suit
+				}
+				
+				Enum Suit {
+					SPADES
+				}""";
+		var cache = new MemoryTranslationCache(16);
+		var translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build())
+				.withCache(cache)
+				.withCanonicalForm();
+		var first = translator.translate(dbml);
+		var second = translator.translate(dbml);
+		assertEquals(first, second);
+		assertTrue(cache.hits() > 0);
+		var schema = new Schema.Parser().parse(second.get(0).schema());
+		assertEquals(SchemaNormalization.toParsingForm(schema), second.get(0).canonicalForm().schema());
+	}
+	
+	@Test
+	void failCanonicalFormAlgorithm() {
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		assertThrows(IllegalArgumentException.class, () -> translator.withCanonicalForm("unknown"));
+	}
+	
+	@Test
+	void write() throws IOException {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+					favorite_suit Suit
+					balance decimal(9,2)
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build());
+		var written = new LinkedHashMap<String, StringWriter>();
+		translator.write(dbml, name -> written.computeIfAbsent(name, x -> new StringWriter()));
+		var results = written.entrySet().stream()
+				.map(e -> new DbmlAvroTranslator.Result(e.getKey(), e.getValue().toString()))
+				.toList();
+		validateSchemas(results);
+		assertEquals(translator.translate(dbml), results);
+	}
+	
+	@Test
+	void writeToDirectory(@TempDir Path directory) throws IOException {
+		var dbml = """
+				Table User {
+					name varchar [not null]
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		translator.write(new StringReader(dbml), SchemaOutput.ofDirectory(directory));
+		assertEquals(translator.translate(dbml).get(0).schema(), Files.readString(directory.resolve("User.avsc")));
+	}
+	
+	@Test
+	void writeToSingleTarget() throws IOException {
+		var dbml = """
+				Table User {
+					favorite_suit Suit
+				}
+				
+				Enum Suit {
+					SPADES
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		var closed = new boolean[1];
+		var writer = new StringWriter() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		translator.write(dbml, writer);
+		writer.append("end");
+		var expected = translator.translate(dbml).stream()
+				.map(result -> result.schema() + System.lineSeparator())
+				.collect(Collectors.joining("", "", "end"));
+		assertEquals(expected, writer.toString());
+		assertFalse(closed[0]);
+	}
+	
+	@Test
+	void writeToSingleStream() throws IOException {
+		var dbml = """
+				Table User {
+					name varchar [note: 'Ü']
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		var closed = new boolean[1];
+		var stream = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		translator.write(dbml, stream);
+		assertEquals(translator.translate(dbml).get(0).schema() + System.lineSeparator(), stream.toString(StandardCharsets.UTF_8));
+		assertFalse(closed[0]);
+	}
+	
+	@Test
+	void writeDoesNotCloseSharedTarget() throws IOException {
+		var dbml = """
+				Table User {
+					name varchar
+				}
+				
+				Table Account {
+					id int
+				}""";
+		var closed = new boolean[1];
+		var writer = new StringWriter() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		new DbmlAvroTranslator(Config.builder().build()).write(dbml, name -> writer);
+		assertFalse(closed[0]);
+	}
+	
+	@Test
+	void failWriteToDirectory(@TempDir Path directory) throws IOException {
+		var dbml = """
+				Table User {
+					name varchar
+					data json
+				}""";
+		var existing = directory.resolve("User.avsc");
+		Files.writeString(existing, "{}");
+		var translator = new DbmlAvroTranslator(Config.builder().build());
+		assertThrows(IllegalArgumentException.class, () -> translator.write(dbml, SchemaOutput.ofDirectory(directory)));
+		assertEquals("{}", Files.readString(existing));
+		try (var files = Files.list(directory)) {
+			assertEquals(List.of(existing), files.toList());
+		}
+	}
+	
 	@Test
 	void failName() {
 		var dbml = """
@@ -243,4 +647,36 @@ class DbmlAvroTranslatorTest {
 		assertThrows(IllegalArgumentException.class, () ->
 				new DbmlAvroTranslator(Config.builder().setNamespace("com.exämple").build()).translate(dbml));
 	}
+	
+	@Test
+	void collectViolations() {
+		var dbml = """
+				Table Üser {
+					näme varchar
+					data json
+				}
+				
+				Table User {
+					name varchar
+					balance decimal
+				}
+				
+				Enum Suit {
+					SPADES
+					HÄRTS
+				}""";
+		var translator = new DbmlAvroTranslator(Config.builder().setNamespace("com.exämple").build())
+				.withValidationMode(ValidationMode.COLLECT);
+		var e = assertThrows(ValidationException.class, () -> translator.translate(dbml));
+		assertEquals(List.of(
+				"Invalid namespace: com.exämple",
+				"Suit: Invalid name: HÄRTS",
+				"Üser: Invalid name: Üser",
+				"Üser: Invalid name: näme",
+				"Üser: data: Unmapped type: json",
+				"User: balance: Unspecified precision for type decimal"
+		), e.getViolations());
+		var parallel = assertThrows(ValidationException.class, () -> translator.translateParallel(dbml, ForkJoinPool.commonPool()));
+		assertEquals(e.getViolations(), parallel.getViolations());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSchemaStoreTest {
+	private static final String DBML = """
+			Table User {
+				id integer [not null]
+				name varchar
+			}
+			
+			Table Log {
+				message varchar
+			}""";
+	private final DbmlAvroTranslator translator = new DbmlAvroTranslator(Config.builder().build());
+	
+	@Test
+	void registerAll(@TempDir Path directory) throws IOException {
+		var results = translator.translate(DBML);
+		try (var store = new FileSchemaStore(directory)) {
+			var registrations = store.registerAll(results);
+			assertEquals(List.of("User", "Log"), registrations.stream().map(SchemaStore.Registration::subject).toList());
+			assertTrue(registrations.stream().allMatch(SchemaStore.Registration::created));
+			assertTrue(registrations.stream().allMatch(registration -> registration.version() == 1));
+			assertEquals(results.get(0).schema(), store.getSchema(registrations.get(0).fingerprint()));
+			
+			var unchanged = store.registerAll(results);
+			assertTrue(unchanged.stream().noneMatch(SchemaStore.Registration::created));
+			assertEquals(registrations.get(0).fingerprint(), unchanged.get(0).fingerprint());
+		}
+	}
+	
+	@Test
+	void registerVersions(@TempDir Path directory) throws IOException {
+		var v1 = translator.translate(DBML).get(0).schema();
+		var v2 = translator.translate(DBML.replace("name varchar", "name varchar [not null]")).get(0).schema();
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(1, store.register("User", v1).version());
+			var registration = store.register("User", v2);
+			assertEquals(2, registration.version());
+			assertTrue(registration.created());
+			var existing = store.register("User", v1);
+			assertEquals(1, existing.version());
+			assertFalse(existing.created());
+			assertEquals(registration.fingerprint(), store.getLatest("User").fingerprint());
+			assertEquals(List.of(1, 2), store.getVersions("User").stream().map(SchemaStore.Registration::version).toList());
+			assertNull(store.getLatest("Unknown"));
+			assertEquals(List.of(), store.getVersions("Unknown"));
+		}
+	}
+	
+	@Test
+	void storeSchemaOnce(@TempDir Path directory) throws IOException {
+		var schema = translator.translate(DBML).get(0).schema();
+		try (var store = new FileSchemaStore(directory)) {
+			store.register("a", schema);
+			var size = Files.size(directory.resolve("schemas.log"));
+			store.register("b", schema);
+			assertEquals(size, Files.size(directory.resolve("schemas.log")));
+			assertEquals(store.getLatest("a").fingerprint(), store.getLatest("b").fingerprint());
+		}
+	}
+	
+	@Test
+	void reopen(@TempDir Path directory) throws IOException {
+		var results = translator.translate(DBML);
+		List<SchemaStore.Registration> registrations;
+		try (var store = new FileSchemaStore(directory)) {
+			registrations = store.registerAll(results);
+		}
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(1, store.getLatest("Log").version());
+			assertEquals(results.get(1).schema(), store.getSchema(registrations.get(1).fingerprint()));
+			assertFalse(store.register("Log", results.get(1).schema()).created());
+		}
+	}
+	
+	@Test
+	void discardIncompleteRecords(@TempDir Path directory) throws IOException {
+		var results = translator.translate(DBML);
+		try (var store = new FileSchemaStore(directory)) {
+			store.registerAll(results.subList(0, 1));
+		}
+		var schemas = directory.resolve("schemas.log");
+		var subjects = directory.resolve("subjects.log");
+		var schemasSize = Files.size(schemas);
+		var subjectsSize = Files.size(subjects);
+		Files.writeString(schemas, "0123456789abcdef %s 100\n{\"type\":".formatted("0".repeat(64)), StandardOpenOption.APPEND);
+		Files.writeString(subjects, "Log\t1\t0123", StandardOpenOption.APPEND);
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(schemasSize, Files.size(schemas));
+			assertEquals(subjectsSize, Files.size(subjects));
+			assertNull(store.getLatest("Log"));
+			assertEquals(1, store.register("Log", results.get(1).schema()).version());
+		}
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(results.get(1).schema(), store.getSchema(store.getLatest("Log").fingerprint()));
+		}
+	}
+	
+	@Test
+	void registerManySubjects(@TempDir Path directory) throws IOException {
+		var results = IntStream.range(0, 5000)
+				.mapToObj(i -> new DbmlAvroTranslator.Result("T" + i, "{\"type\": \"record\", \"name\": \"T%d\", \"fields\": []}".formatted(i)))
+				.toList();
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(5000, store.registerAll(results).stream().filter(SchemaStore.Registration::created).count());
+		}
+		try (var store = new FileSchemaStore(directory)) {
+			assertEquals(0, store.registerAll(results).stream().filter(SchemaStore.Registration::created).count());
+		}
+	}
+	
+	@Test
+	void registerCanonicalForm(@TempDir Path directory) throws IOException {
+		var result = translator.withCanonicalForm().translate(DBML).get(0);
+		try (var store = new FileSchemaStore(directory)) {
+			var registration = store.registerAll(List.of(result)).get(0);
+			assertEquals(result.canonicalForm().fingerprint(), registration.fingerprint());
+			var reformatted = store.register("User", result.schema().replace("\n", "\r\n"));
+			assertFalse(reformatted.created());
+			assertEquals(registration.fingerprint(), reformatted.fingerprint());
+		}
+	}
+	
+	@Test
+	void failFingerprintCollision(@TempDir Path directory) throws Exception {
+		var results = translator.withCanonicalForm("SHA-256").translate(DBML);
+		var schema = results.get(0);
+		var other = results.get(1);
+		var length = other.schema().getBytes(StandardCharsets.UTF_8).length;
+		Files.writeString(directory.resolve("schemas.log"), "%016x %s %d\n%s\n".formatted(
+				schema.canonicalForm().fingerprint(), other.canonicalForm().digests().get("SHA-256"), length, other.schema()));
+		try (var store = new FileSchemaStore(directory)) {
+			assertThrows(IllegalStateException.class, () -> store.registerAll(List.of(schema)));
+			assertEquals(List.of(), store.getVersions("User"));
+		}
+	}
+	
+	@Test
+	void failPreviousFormat(@TempDir Path directory) throws IOException {
+		var schema = "\"int\"";
+		Files.writeString(directory.resolve("schemas.log"), "0123456789abcdef %d\n%s\n".formatted(schema.length(), schema));
+		assertThrows(UncheckedIOException.class, () -> new FileSchemaStore(directory));
+		assertTrue(Files.size(directory.resolve("schemas.log")) > 0);
+	}
+	
+	@Test
+	void failSubject(@TempDir Path directory) throws IOException {
+		try (var store = new FileSchemaStore(directory)) {
+			assertThrows(IllegalArgumentException.class, () -> store.register("a\tb", "\"int\""));
+		}
+	}
+}
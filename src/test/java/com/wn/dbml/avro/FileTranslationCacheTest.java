@@ -0,0 +1,26 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTranslationCacheTest {
+	@Test
+	void getAndPut(@TempDir Path directory) {
+		var cache = new FileTranslationCache(directory.resolve("cache"));
+		assertNull(cache.get("a"));
+		cache.put("a", "schema");
+		assertEquals("schema", cache.get("a"));
+		assertEquals(1, cache.hits());
+		assertEquals(1, cache.misses());
+	}
+	
+	@Test
+	void persist(@TempDir Path directory) {
+		new FileTranslationCache(directory).put("a", "schema");
+		assertEquals("schema", new FileTranslationCache(directory).get("a"));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaCodeGeneratorTest {
+	private static final String DBML = """
+			Table Payment {
+				id bigint [not null]
+				reference uuid [not null]
+				amount decimal(9,2) [not null]
+				status Status [not null]
+				class varchar
+				due date
+				created timestamp [not null]
+				note : "a payment"
+			}
+			
+			Enum Status {
+				PENDING
+				SETTLED
+			}""";
+	@TempDir
+	Path directory;
+	
+	@Test
+	void generate() {
+		var schemas = new AvroSchemaTranslator(Config.builder().build()).translate(DBML);
+		var generator = new JavaCodeGenerator("com.example");
+		var payment = generator.generate(schemas.get(0));
+		assertEquals(Path.of("com/example/Payment.java"), payment.path());
+		assertTrue(payment.source().contains("\t\tString class_,"));
+		assertTrue(payment.source().contains(" * a payment"));
+		var status = generator.generate(schemas.get(1));
+		assertEquals("Status", status.className());
+	}
+	
+	@Test
+	void roundTrip() throws Exception {
+		var schemas = new AvroSchemaTranslator(Config.builder().build()).translate(DBML);
+		var classes = compile(schemas);
+		var statusClass = classes.loadClass("com.example.Status");
+		var paymentClass = classes.loadClass("com.example.Payment");
+		var settled = statusClass.getMethod("ofOrdinal", int.class).invoke(null, 1);
+		var reference = UUID.randomUUID();
+		var created = Instant.parse("2024-05-01T12:30:00.123456Z");
+		var payment = paymentClass.getConstructors()[0].newInstance(
+				42L, reference, new BigDecimal("12.30"), settled, null, LocalDate.of(2024, 6, 1), created);
+		
+		var bytes = new ByteArrayOutputStream();
+		var encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+		paymentClass.getMethod("encode", org.apache.avro.io.Encoder.class).invoke(payment, encoder);
+		encoder.flush();
+		
+		var schema = schemas.get(0);
+		GenericRecord record = new GenericDatumReader<GenericRecord>(schema)
+				.read(null, DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null));
+		assertEquals(42L, record.get("id"));
+		assertEquals(new Utf8(reference.toString()), record.get("reference"));
+		assertEquals(ByteBuffer.wrap(new BigDecimal("12.30").unscaledValue().toByteArray()), record.get("amount"));
+		assertEquals("SETTLED", record.get("status").toString());
+		assertNull(record.get("class"));
+		assertEquals((int) LocalDate.of(2024, 6, 1).toEpochDay(), record.get("due"));
+		assertEquals(1714566600123456L, record.get("created"));
+		
+		var genericBytes = new ByteArrayOutputStream();
+		var genericEncoder = EncoderFactory.get().binaryEncoder(genericBytes, null);
+		new GenericDatumWriter<GenericRecord>(schema).write(record, genericEncoder);
+		genericEncoder.flush();
+		assertArrayEquals(genericBytes.toByteArray(), bytes.toByteArray());
+		
+		var decoded = paymentClass.getMethod("decode", org.apache.avro.io.Decoder.class)
+				.invoke(null, DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null));
+		assertEquals(payment, decoded);
+		assertEquals(schema, paymentClass.getField("SCHEMA$").get(null));
+	}
+	
+	@Test
+	void roundTripCompactDecimal() throws Exception {
+		var dbml = """
+				Table Price {
+					amount decimal(9,2) [not null]
+					discount decimal(4,2)
+				}""";
+		var schema = new AvroSchemaTranslator(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build()).translate(dbml).get(0);
+		var priceClass = compile(List.of(schema)).loadClass("com.example.Price");
+		var price = priceClass.getConstructors()[0].newInstance(new BigDecimal("-12.30"), new BigDecimal("0.15"));
+		
+		var bytes = new ByteArrayOutputStream();
+		var encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+		priceClass.getMethod("encode", org.apache.avro.io.Encoder.class).invoke(price, encoder);
+		encoder.flush();
+		
+		var record = new GenericDatumReader<GenericRecord>(schema).read(null, DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null));
+		var amountSchema = schema.getField("amount").schema();
+		var amount = new Conversions.DecimalConversion().fromFixed((GenericFixed) record.get("amount"), amountSchema, amountSchema.getLogicalType());
+		assertEquals(new BigDecimal("-12.30"), amount);
+		assertEquals(4 + 1 + 2, bytes.size());
+		var decoded = priceClass.getMethod("decode", org.apache.avro.io.Decoder.class)
+				.invoke(null, DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null));
+		assertEquals(price, decoded);
+	}
+	
+	@Test
+	void failUnion() {
+		var schema = new Schema.Parser().parse("""
+				{"type": "record", "name": "R", "fields": [{"name": "f", "type": ["int", "string"]}]}""");
+		var generator = new JavaCodeGenerator(null);
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(schema));
+	}
+	
+	private URLClassLoader compile(List<Schema> schemas) throws IOException {
+		var generator = new JavaCodeGenerator("com.example");
+		var files = new ArrayList<String>();
+		for (var schema : schemas) {
+			var source = generator.generate(schema);
+			var file = directory.resolve(source.path());
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, source.source());
+			files.add(file.toString());
+		}
+		var args = new ArrayList<>(List.of("-d", directory.toString(), "-cp", System.getProperty("java.class.path")));
+		args.addAll(files);
+		assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(String[]::new)));
+		return new URLClassLoader(new java.net.URL[]{directory.toUri().toURL()}, getClass().getClassLoader());
+	}
+}
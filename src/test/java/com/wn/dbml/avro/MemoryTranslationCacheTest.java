@@ -0,0 +1,34 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryTranslationCacheTest {
+	@Test
+	void getAndPut() {
+		var cache = new MemoryTranslationCache(10);
+		assertNull(cache.get("a"));
+		cache.put("a", "schema");
+		assertEquals("schema", cache.get("a"));
+		assertEquals(1, cache.hits());
+		assertEquals(1, cache.misses());
+	}
+	
+	@Test
+	void evictLeastRecentlyUsed() {
+		var cache = new MemoryTranslationCache(2);
+		cache.put("a", "schema a");
+		cache.put("b", "schema b");
+		cache.get("a");
+		cache.put("c", "schema c");
+		assertEquals("schema a", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("schema c", cache.get("c"));
+	}
+	
+	@Test
+	void failSizeZero() {
+		assertThrows(IllegalArgumentException.class, () -> new MemoryTranslationCache(0));
+	}
+}
\ No newline at end of file
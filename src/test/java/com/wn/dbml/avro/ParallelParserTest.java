@@ -0,0 +1,141 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Table;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelParserTest {
+	private final ParallelParser parser = new ParallelParser(ForkJoinPool.commonPool(), 64);
+	
+	@Test
+	void split() {
+		var dbml = """
+				// the model
+				Table User {
+					name varchar [note: 'a } brace']
+					/* a } brace */
+				}
+				
+				Table Log {
+					message varchar [note: "a \\" quote"] // a } brace
+				}
+				Enum Suit {
+					SPADES
+				}""";
+		var chunks = parser.split(dbml);
+		assertTrue(chunks.size() > 1);
+		assertTrue(chunks.get(0).startsWith("Table User {"));
+		var joined = String.join("", chunks);
+		assertTrue(joined.contains("\nTable Log {"));
+		assertTrue(joined.endsWith("Enum Suit {\n\tSPADES\n}\n"));
+	}
+	
+	@Test
+	void splitMultiLineString() {
+		var dbml = """
+				Table User {
+					name varchar
+					Note: '''
+						a } brace
+					'''
+				}
+				Enum Suit {
+					SPADES
+				}""";
+		assertEquals(dbml + "\n", String.join("", parser.split(dbml)));
+	}
+	
+	@Test
+	void failSplitUnknownBlock() {
+		assertNull(parser.split("TablePartial base {\n  id integer\n}"));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"Ref: User.id > Log.id", "Ref {\n  User.id > Log.id\n}", "TableGroup Group {\n  User\n}",
+			"Project Model {\n  database_type: 'PostgreSQL'\n}", "Note model {\n  'a note'\n}"})
+	void failSplitOtherBlock(String block) {
+		assertNull(parser.split("Table User {\n  id integer\n}\n" + block + "\nEnum Suit {\n  SPADES\n}"));
+	}
+	
+	@Test
+	void failSplitUnterminatedBlock() {
+		assertNull(parser.split("Table User {\n  id integer\n"));
+	}
+	
+	@Test
+	void failSplitUnterminatedComment() {
+		assertNull(parser.split("Table User {\n  id integer\n}\n/* comment\nEnum Suit {\n  SPADES\n}"));
+	}
+	
+	@Test
+	void parse() {
+		var dbml = generate(50);
+		var parsed = parser.parse(dbml);
+		var sequential = ParsedDbml.of(DbmlParser.parse(dbml));
+		assertEquals(names(sequential.tables()), names(parsed.tables()));
+		assertEquals(sequential.enums().keySet(), parsed.enums().keySet());
+		assertEquals(1, parsed.enums().get("public").size());
+	}
+	
+	@Test
+	void failMergeDuplicate() {
+		var database = DbmlParser.parse(generate(1));
+		assertNull(ParsedDbml.merge(List.of(database, DbmlParser.parse(generate(1)))));
+		assertNotNull(ParsedDbml.merge(List.of(database)));
+	}
+	
+	@Test
+	void failParseWithLineNumber() {
+		var dbml = generate(50) + "\nTable Broken {\n  name\n}";
+		var expected = assertThrows(RuntimeException.class, () -> DbmlParser.parse(dbml));
+		var actual = assertThrows(RuntimeException.class, () -> parser.parse(dbml));
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	@Test
+	void failParseInvalidReference() {
+		var dbml = generate(50) + "\nRef: User0.name > Missing.name";
+		var expected = assertThrows(RuntimeException.class, () -> DbmlParser.parse(dbml));
+		var actual = assertThrows(RuntimeException.class, () -> parser.parse(dbml));
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	@Test
+	void failParseUnterminatedComment() {
+		var large = generate(2 * ParallelParser.DEFAULT_CHUNK_SIZE / 30);
+		assertTrue(large.length() >= 2 * ParallelParser.DEFAULT_CHUNK_SIZE);
+		var dbml = large + "\n/* comment\n" + generate(1);
+		var expected = assertThrows(RuntimeException.class, () -> DbmlParser.parse(dbml));
+		var actual = assertThrows(RuntimeException.class, () -> new ParallelParser(ForkJoinPool.commonPool()).parse(dbml));
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	private static String generate(int tables) {
+		return IntStream.range(0, tables)
+				.mapToObj(i -> """
+						Table User%d {
+							name varchar
+						}
+						""".formatted(i))
+				.collect(Collectors.joining("\n", "", """
+						Enum Suit {
+							SPADES
+						}"""));
+	}
+	
+	private static List<String> names(List<Table> tables) {
+		return tables.stream().map(Table::getName).toList();
+	}
+}
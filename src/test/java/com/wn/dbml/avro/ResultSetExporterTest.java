@@ -0,0 +1,187 @@
+package com.wn.dbml.avro;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Table;
+import org.apache.avro.Conversions;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetExporterTest {
+	private static final String DBML = """
+			Table Payment {
+				id bigint [not null]
+				amount decimal(9,2) [not null]
+				status Status [not null]
+				due date
+				created timestamp [not null]
+				description varchar
+			}
+			
+			Enum Status {
+				PENDING
+				SETTLED
+			}""";
+	private static final Instant CREATED = Instant.parse("2024-05-01T12:30:00.123456Z");
+	
+	@Test
+	void exportBinary() throws SQLException, IOException {
+		var exporter = newExporter();
+		var out = new ByteArrayOutputStream();
+		
+		var count = exporter.export(newResultSet(), out);
+		
+		assertEquals(2, count);
+		var reader = new GenericDatumReader<GenericRecord>(exporter.getSchema());
+		var decoder = DecoderFactory.get().binaryDecoder(out.toByteArray(), null);
+		assertFirst(reader.read(null, decoder));
+		assertSecond(reader.read(null, decoder));
+		assertTrue(decoder.isEnd());
+	}
+	
+	@Test
+	void exportContainerFile() throws SQLException, IOException {
+		var exporter = newExporter();
+		var out = new ByteArrayOutputStream();
+		try (var writer = new DataFileWriter<GenericRecord>(new GenericDatumWriter<>(exporter.getSchema()))) {
+			writer.create(exporter.getSchema(), out);
+			assertEquals(2, exporter.export(newResultSet(), writer));
+		}
+		
+		var records = new ArrayList<GenericRecord>();
+		try (var reader = new DataFileReader<>(new SeekableByteArrayInput(out.toByteArray()), new GenericDatumReader<GenericRecord>())) {
+			reader.forEach(records::add);
+		}
+		assertEquals(2, records.size());
+		assertFirst(records.get(0));
+		assertSecond(records.get(1));
+	}
+	
+	@Test
+	void exportCompactDecimal() throws SQLException, IOException {
+		var schema = new AvroSchemaTranslator(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build()).translate(DBML).get(0);
+		var exporter = new ResultSetExporter(getTable(), schema);
+		var out = new ByteArrayOutputStream();
+		var resultSet = newResultSet(
+				new Object[]{1L, new BigDecimal("12.5"), "SETTLED", null, Timestamp.from(CREATED), null},
+				new Object[]{2L, new BigDecimal("-3"), "PENDING", null, Timestamp.from(CREATED), null});
+		
+		assertEquals(2, exporter.export(resultSet, out));
+		
+		var amountSchema = schema.getField("amount").schema();
+		var conversion = new Conversions.DecimalConversion();
+		var reader = new GenericDatumReader<GenericRecord>(schema);
+		var decoder = DecoderFactory.get().binaryDecoder(out.toByteArray(), null);
+		var first = (GenericFixed) reader.read(null, decoder).get("amount");
+		assertArrayEquals(new byte[]{0, 0, 0x04, (byte) 0xe2}, first.bytes());
+		assertEquals(new BigDecimal("12.50"), conversion.fromFixed(first, amountSchema, amountSchema.getLogicalType()));
+		var second = (GenericFixed) reader.read(null, decoder).get("amount");
+		assertEquals(new BigDecimal("-3.00"), conversion.fromFixed(second, amountSchema, amountSchema.getLogicalType()));
+		assertTrue(decoder.isEnd());
+	}
+	
+	@Test
+	void failNullOfNonNullColumn() {
+		var exporter = newExporter();
+		var resultSet = newResultSet(new Object[]{null, new BigDecimal("1.00"), "PENDING", null, Timestamp.from(CREATED), null});
+		assertThrows(IllegalArgumentException.class, () -> exporter.export(resultSet, new ByteArrayOutputStream()));
+	}
+	
+	@Test
+	void failScale() {
+		var exporter = newExporter();
+		var resultSet = newResultSet(new Object[]{1L, new BigDecimal("1.005"), "PENDING", null, Timestamp.from(CREATED), null});
+		assertThrows(IllegalArgumentException.class, () -> exporter.export(resultSet, new ByteArrayOutputStream()));
+	}
+	
+	@Test
+	void failSchemaOfOtherTable() {
+		var schema = new AvroSchemaTranslator(Config.builder().build()).translate(DBML).get(1);
+		assertThrows(IllegalArgumentException.class, () -> new ResultSetExporter(getTable(), schema));
+	}
+	
+	private static void assertFirst(GenericRecord record) {
+		assertEquals(1L, record.get("id"));
+		assertEquals(ByteBuffer.wrap(new BigDecimal("12.50").unscaledValue().toByteArray()), record.get("amount"));
+		assertEquals("SETTLED", record.get("status").toString());
+		assertEquals((int) LocalDate.of(2024, 6, 1).toEpochDay(), record.get("due"));
+		assertEquals(1714566600123456L, record.get("created"));
+		assertEquals(new Utf8("first"), record.get("description"));
+	}
+	
+	private static void assertSecond(GenericRecord record) {
+		assertEquals(2L, record.get("id"));
+		assertEquals(ByteBuffer.wrap(new BigDecimal("3.00").unscaledValue().toByteArray()), record.get("amount"));
+		assertNull(record.get("due"));
+		assertNull(record.get("description"));
+	}
+	
+	private static ResultSetExporter newExporter() {
+		var schema = new AvroSchemaTranslator(Config.builder().build()).translate(DBML).get(0);
+		return new ResultSetExporter(getTable(), schema);
+	}
+	
+	private static Table getTable() {
+		return DbmlParser.parse(DBML).getSchemas().iterator().next().getTables().iterator().next();
+	}
+	
+	private static ResultSet newResultSet() {
+		return newResultSet(
+				new Object[]{1L, new BigDecimal("12.5"), "SETTLED", LocalDate.of(2024, 6, 1), Timestamp.from(CREATED), "first"},
+				new Object[]{2L, new BigDecimal("3"), "PENDING", null, Timestamp.from(CREATED), null});
+	}
+	
+	/**
+	 * Creates a forward-only result set over the rows, with the columns in reverse order of the table.
+	 */
+	private static ResultSet newResultSet(Object[]... rows) {
+		var columns = List.of("description", "created", "due", "status", "amount", "id");
+		var state = new Object() {
+			int row = -1;
+			Object last;
+		};
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "next":
+					return ++state.row < rows.length;
+				case "findColumn":
+					return columns.indexOf((String) args[0]) + 1;
+				case "wasNull":
+					return state.last == null;
+				default:
+					if (!method.getName().startsWith("get") || args == null) throw new UnsupportedOperationException(method.getName());
+			}
+			var row = rows[state.row];
+			var value = row[row.length - (int) args[0]];
+			state.last = value;
+			return switch (method.getName()) {
+				case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+				case "getObject", "getBigDecimal", "getTimestamp", "getString" -> value;
+				default -> throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+			};
+		});
+	}
+}
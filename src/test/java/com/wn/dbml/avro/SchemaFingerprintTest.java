@@ -0,0 +1,18 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.SchemaNormalization;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchemaFingerprintTest {
+	@ParameterizedTest
+	@ValueSource(strings = {"", "\"int\"", "{\"name\":\"User\",\"type\":\"record\",\"fields\":[{\"name\":\"Ü\",\"type\":\"int\"}]}"})
+	void rabin(String input) {
+		var bytes = input.getBytes(StandardCharsets.UTF_8);
+		assertEquals(SchemaNormalization.fingerprint64(bytes), SchemaFingerprint.rabin(bytes));
+	}
+}
\ No newline at end of file
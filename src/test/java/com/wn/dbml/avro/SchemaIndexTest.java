@@ -0,0 +1,78 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaIndexTest {
+	private static final String DBML = """
+			Table Player {
+				id integer [not null]
+				favorite_suit Suit
+				lucky_suit Suit
+				rank Rank [not null]
+			}
+			
+			Table Log {
+				message varchar
+			}
+			
+			Enum Suit {
+				SPADES
+				HEARTS
+			}
+			
+			Enum Rank {
+				ACE
+				KING
+			}""";
+	private final Config config = Config.builder().setNamespace("com.example").build();
+	
+	@Test
+	void index() {
+		var index = new DbmlAvroTranslator(config).index(DBML);
+		assertEquals(List.of("Player", "Log", "Suit", "Rank"), index.entries().stream().map(SchemaIndex.Entry::name).toList());
+		var player = index.get("Player");
+		assertEquals(SchemaIndex.Kind.RECORD, player.kind());
+		assertEquals("com.example", player.namespace());
+		assertEquals(4, player.fieldCount());
+		assertEquals(List.of("Suit", "Rank"), player.enumTypes());
+		var suit = index.get("Suit");
+		assertEquals(SchemaIndex.Kind.ENUM, suit.kind());
+		assertEquals(0, suit.fieldCount());
+		assertEquals(List.of(), suit.enumTypes());
+		assertNull(index.get("Unknown"));
+	}
+	
+	@Test
+	void translateOnDemand() {
+		var typeMapper = new TypeMapper(config);
+		var translator = new DbmlAvroTranslator(config, typeMapper);
+		var index = translator.index(DBML);
+		assertEquals(0, typeMapper.getCacheMisses());
+		
+		var expected = new DbmlAvroTranslator(config).translate(DBML);
+		assertEquals(expected, index.entries().stream().map(SchemaIndex.Entry::result).toList());
+		assertSame(index.get("Log").result(), index.get("Log").result());
+	}
+	
+	@Test
+	void failOnDemand() {
+		var dbml = """
+				Table Valid {
+					id integer
+				}
+				
+				Table Invalid {
+					id unknown
+				}""";
+		var index = new DbmlAvroTranslator(config).index(dbml);
+		assertEquals(2, index.entries().size());
+		assertNotNull(index.get("Valid").result());
+		assertThrows(IllegalArgumentException.class, () -> index.get("Invalid").result());
+		var collecting = new DbmlAvroTranslator(config).withValidationMode(ValidationMode.COLLECT).index(dbml);
+		assertThrows(ValidationException.class, () -> collecting.get("Invalid").result());
+	}
+}
@@ -0,0 +1,61 @@
+package com.wn.dbml.avro;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaOutputTest {
+	@Test
+	void ofStreams() throws IOException {
+		var streams = new HashMap<String, ByteArrayOutputStream>();
+		var output = SchemaOutput.ofStreams(name -> streams.computeIfAbsent(name, x -> new ByteArrayOutputStream()));
+		var writer = output.open("User");
+		writer.append("{\"doc\": \"Ü\"}");
+		output.finish("User", writer);
+		assertEquals("{\"doc\": \"Ü\"}", streams.get("User").toString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	void ofChannels() throws IOException {
+		var stream = new ByteArrayOutputStream();
+		var output = SchemaOutput.ofChannels(name -> Channels.newChannel(stream));
+		var writer = output.open("User");
+		writer.append("{}");
+		output.finish("User", writer);
+		assertEquals("{}", stream.toString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	void ofDirectory(@TempDir Path directory) throws IOException {
+		var output = SchemaOutput.ofDirectory(directory);
+		var writer = output.open("User");
+		writer.append("{}");
+		assertFalse(Files.exists(directory.resolve("User.avsc")));
+		output.finish("User", writer);
+		try (var files = Files.list(directory)) {
+			assertEquals(List.of(directory.resolve("User.avsc")), files.toList());
+		}
+		assertEquals("{}", Files.readString(directory.resolve("User.avsc")));
+	}
+	
+	@Test
+	void abortDirectory(@TempDir Path directory) throws IOException {
+		var output = SchemaOutput.ofDirectory(directory);
+		var writer = output.open("User");
+		writer.append("{");
+		output.abort("User", writer);
+		try (var files = Files.list(directory)) {
+			assertEquals(List.of(), files.toList());
+		}
+	}
+}
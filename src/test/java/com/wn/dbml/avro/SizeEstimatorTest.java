@@ -0,0 +1,152 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeEstimatorTest {
+	private final SizeEstimator estimator = new SizeEstimator(Config.builder().build());
+	
+	@ParameterizedTest
+	@CsvSource({
+			"0, 1",
+			"-1, 1",
+			"63, 1",
+			"-64, 1",
+			"64, 2",
+			"2147483647, 5",
+			"-9223372036854775808, 10",
+	})
+	void varintSize(long value, int size) {
+		assertEquals(size, SizeEstimator.varintSize(value));
+	}
+	
+	@ParameterizedTest
+	@CsvSource({
+			"1, 1",
+			"2, 1",
+			"3, 2",
+			"9, 4",
+			"18, 8",
+			"38, 16",
+	})
+	void decimalBytes(int precision, int bytes) {
+		assertEquals(bytes, TypeMapper.decimalBytes(precision));
+	}
+	
+	@ParameterizedTest
+	@CsvSource({
+			"char(3), 4, 13, 4",
+			"CHARACTER(3), 4, 13, 4",
+			"character varying(3), 1, 13, 2",
+			"charset(3), 1, 13, 2",
+	})
+	void estimateCharacterType(String columnType, long min, long max, long typical) {
+		var typeMapper = new TypeMapper(Config.builder().build());
+		assertEquals(new SizeEstimator.Size(min, max, typical), SizeEstimator.estimate(typeMapper.resolve(columnType), columnType));
+	}
+	
+	@Test
+	void estimate() {
+		var dbml = """
+				Table User {
+					id bigint [not null]
+					name varchar(100)
+					code char(3) [not null]
+					bio text
+					price decimal(9,2) [not null]
+					created timestamp [not null]
+					span duration [not null]
+					suit Suit [not null]
+				}
+				
+				Enum Suit {
+					SPADES
+					HEARTS
+				}""";
+		var report = estimator.estimate(dbml);
+		var user = report.get("User");
+		var fields = user.fields();
+		assertEquals(new SizeEstimator.Size(1, 10, 5), fields.get(0).size());
+		assertEquals(new SizeEstimator.Size(1, 1 + 2 + 400, 1 + 1 + 50), fields.get(1).size());
+		assertEquals(new SizeEstimator.Size(4, 1 + 12, 4), fields.get(2).size());
+		assertFalse(fields.get(3).size().isBounded());
+		assertEquals("decimal", fields.get(4).type());
+		assertEquals(new SizeEstimator.Size(2, 5, 4), fields.get(4).size());
+		assertEquals(new SizeEstimator.Size(1, 10, 8), fields.get(5).size());
+		assertEquals(new SizeEstimator.Size(12, 12, 12), fields.get(6).size());
+		assertEquals(new SizeEstimator.Size(1, 1, 1), fields.get(7).size());
+		assertFalse(user.size().isBounded());
+		assertEquals(fields.stream().mapToLong(field -> field.size().min()).sum(), user.size().min());
+		assertNull(report.get("Suit"));
+	}
+	
+	@Test
+	void estimateWithinBounds() throws IOException {
+		var dbml = """
+				Table Payment {
+					id integer [not null]
+					amount decimal(9,2) [not null]
+					note varchar(20)
+				}""";
+		var size = estimator.estimate(dbml).get("Payment").size();
+		var schema = new AvroSchemaTranslator(Config.builder().build()).translate(dbml).get(0);
+		var record = new GenericData.Record(schema);
+		record.put("id", Integer.MAX_VALUE);
+		record.put("amount", ByteBuffer.wrap(new BigDecimal("-9999999.99").unscaledValue().toByteArray()));
+		record.put("note", "x".repeat(20));
+		var out = new ByteArrayOutputStream();
+		var encoder = EncoderFactory.get().binaryEncoder(out, null);
+		new GenericDatumWriter<>(schema).write(record, encoder);
+		encoder.flush();
+		assertTrue(out.size() >= size.min() && out.size() <= size.max(), out.size() + " " + size);
+		record.put("note", null);
+		record.put("id", 0);
+		out.reset();
+		new GenericDatumWriter<>(schema).write(record, encoder);
+		encoder.flush();
+		assertTrue(out.size() >= size.min(), out.size() + " " + size);
+	}
+	
+	@Test
+	void estimateCompact() {
+		var dbml = """
+				Table Payment {
+					amount decimal(9,2) [not null]
+					hash binary(32)
+					count smallint [not null]
+				}""";
+		var compact = new SizeEstimator(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build());
+		var fields = compact.estimate(dbml).get("Payment").fields();
+		assertEquals(new SizeEstimator.Size(4, 4, 4), fields.get(0).size());
+		assertEquals("decimal", fields.get(0).type());
+		assertEquals(new SizeEstimator.Size(1, 33, 33), fields.get(1).size());
+		assertEquals("fixed", fields.get(1).type());
+		assertEquals(new SizeEstimator.Size(1, 5, 3), fields.get(2).size());
+	}
+	
+	@Test
+	void toCsv() {
+		var csv = estimator.estimate("Table Log {\n  message varchar(10) [not null]\n}").toCsv();
+		assertEquals("""
+				record,field,type,min,max,typical
+				Log,message,string,1,41,6
+				Log,,record,1,41,6
+				""", csv);
+	}
+	
+	@Test
+	void failUnmappedType() {
+		assertThrows(IllegalArgumentException.class, () -> estimator.estimate("Table Log {\n  message unknown\n}"));
+	}
+}
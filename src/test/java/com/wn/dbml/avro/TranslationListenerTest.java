@@ -0,0 +1,142 @@
+package com.wn.dbml.avro;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationListenerTest {
+	private static final String DBML = """
+			Table User {
+				id integer [not null]
+				name varchar [note: 'Naïve 名前 😀']
+				suit Suit
+			}
+			
+			Table Log {
+				message varchar
+			}
+			
+			Enum Suit {
+				SPADES
+				HEARTS
+			}""";
+	
+	@Test
+	void translate() {
+		var listener = new CollectingListener();
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withListener(listener);
+		var results = translator.translate(DBML);
+		
+		assertEquals(List.of("User", "Log"), listener.tables.stream().map(TranslationListener.TableMetrics::name).toList());
+		assertEquals(3, listener.tables.get(0).columns());
+		assertEquals(utf8Length(results.get(0).schema()), listener.tables.get(0).bytes());
+		listener.tables.forEach(table -> {
+			assertTrue(table.validateNanos() >= 0);
+			assertTrue(table.mapTypesNanos() >= 0);
+			assertTrue(table.emitNanos() >= 0);
+		});
+		assertEquals(1, listener.completed.size());
+		var metrics = listener.completed.get(0);
+		assertEquals(2, metrics.tables());
+		assertEquals(4, metrics.columns());
+		assertEquals(1, metrics.enums());
+		assertEquals(results.stream().mapToLong(result -> utf8Length(result.schema())).sum(), metrics.bytes());
+		assertTrue(metrics.parseNanos() > 0);
+		assertTrue(metrics.validateNanos() > 0);
+	}
+	
+	@Test
+	void translateParallel() {
+		var listener = new CollectingListener();
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withListener(listener);
+		translator.translateParallel(DBML, ForkJoinPool.commonPool());
+		
+		assertEquals(2, listener.tables.size());
+		assertEquals(2, listener.completed.get(0).tables());
+		assertEquals(4, listener.completed.get(0).columns());
+	}
+	
+	@Test
+	void write() throws Exception {
+		var listener = new CollectingListener();
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withListener(listener);
+		var writers = new HashMap<String, StringWriter>();
+		translator.write(DBML, name -> writers.computeIfAbsent(name, n -> new StringWriter()));
+		
+		var bytes = writers.values().stream().mapToLong(writer -> utf8Length(writer.toString())).sum();
+		assertEquals(bytes, listener.completed.get(0).bytes());
+		assertEquals(utf8Length(writers.get("User").toString()), listener.tables.get(0).bytes());
+	}
+	
+	@Test
+	void violationsAreNotCompleted() {
+		var listener = new CollectingListener();
+		var translator = new DbmlAvroTranslator(Config.builder().build()).withListener(listener);
+		assertThrows(IllegalArgumentException.class, () -> translator.translate("Table User {\n  id unknown\n}"));
+		
+		assertTrue(listener.completed.isEmpty());
+	}
+	
+	@Test
+	void flightRecorderEvents(@TempDir Path dir) throws Exception {
+		var file = dir.resolve("translation.jfr");
+		try (var recording = new Recording()) {
+			recording.enable("com.wn.dbml.avro.Parse");
+			recording.enable("com.wn.dbml.avro.Table");
+			recording.enable("com.wn.dbml.avro.Translation");
+			recording.start();
+			new DbmlAvroTranslator(Config.builder().build()).translate(DBML);
+			recording.stop();
+			recording.dump(file);
+		}
+		
+		var events = RecordingFile.readAllEvents(file);
+		var names = events.stream().map(event -> event.getEventType().getName()).toList();
+		assertEquals(1, Collections.frequency(names, "com.wn.dbml.avro.Parse"));
+		assertEquals(2, Collections.frequency(names, "com.wn.dbml.avro.Table"));
+		assertEquals(1, Collections.frequency(names, "com.wn.dbml.avro.Translation"));
+		var translation = events.stream()
+				.filter(event -> event.getEventType().getName().equals("com.wn.dbml.avro.Translation"))
+				.findFirst()
+				.orElseThrow();
+		assertEquals(2, translation.getInt("tables"));
+		assertEquals(1, translation.getInt("enums"));
+		var tables = events.stream()
+				.filter(event -> event.getEventType().getName().equals("com.wn.dbml.avro.Table"))
+				.map(event -> event.getString("table"))
+				.sorted()
+				.toList();
+		assertEquals(List.of("Log", "User"), tables);
+	}
+	
+	private static long utf8Length(String s) {
+		return s.getBytes(StandardCharsets.UTF_8).length;
+	}
+	
+	private static class CollectingListener implements TranslationListener {
+		private final List<TableMetrics> tables = Collections.synchronizedList(new ArrayList<>());
+		private final List<TranslationMetrics> completed = new ArrayList<>();
+		
+		@Override
+		public void tableTranslated(TableMetrics metrics) {
+			tables.add(metrics);
+		}
+		
+		@Override
+		public void translationCompleted(TranslationMetrics metrics) {
+			completed.add(metrics);
+		}
+	}
+}
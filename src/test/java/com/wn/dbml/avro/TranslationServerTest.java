@@ -0,0 +1,157 @@
+package com.wn.dbml.avro;
+
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationServerTest {
+	private static final String DBML = """
+			Table User {
+				id integer [not null]
+				suit Suit
+			}
+			
+			Enum Suit {
+				SPADES
+				HEARTS
+			}""";
+	private static final Pattern ETAG = Pattern.compile("\"etag\": \"(\\w+)\"");
+	private final HttpClient client = HttpClient.newHttpClient();
+	private TranslationServer server;
+	
+	@BeforeEach
+	void start() throws IOException {
+		server = TranslationServer.builder()
+				.setConfig(Config.builder().setNamespace("com.example").build())
+				.start(new InetSocketAddress("localhost", 0));
+	}
+	
+	@AfterEach
+	void stop() {
+		server.close();
+	}
+	
+	@Test
+	void translate() throws Exception {
+		var response = post("/translate", DBML);
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("ETag").isPresent());
+		var body = response.body();
+		assertTrue(body.startsWith("[\n{\"name\": \"User\""));
+		var expected = new DbmlAvroTranslator(Config.builder().setNamespace("com.example").build()).translate(DBML);
+		assertTrue(body.contains(expected.get(0).schema()));
+		assertTrue(body.contains(expected.get(1).schema()));
+	}
+	
+	@Test
+	void translateWithParameters() throws Exception {
+		var body = post("/translate?namespace=org.example&mapping=long=integer", DBML).body();
+		var schema = body.substring(body.indexOf("\"schema\": ") + 10, body.indexOf("}},") + 1);
+		var parsed = new Schema.Parser().parse(schema);
+		assertEquals("org.example", parsed.getNamespace());
+		assertEquals(Schema.Type.LONG, parsed.getField("id").schema().getType());
+	}
+	
+	@Test
+	void cacheTranslation() throws Exception {
+		var first = post("/translate", DBML);
+		var second = post("/translate", DBML);
+		assertEquals(first.body(), second.body());
+		var etag = first.headers().firstValue("ETag").orElseThrow();
+		var notModified = client.send(HttpRequest.newBuilder(uri("/translate"))
+				.header("If-None-Match", etag)
+				.POST(HttpRequest.BodyPublishers.ofString(DBML))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(304, notModified.statusCode());
+		var metrics = get("/metrics").body();
+		assertTrue(metrics.contains("dbml_avro_translation_cache_hits_total 2"), metrics);
+		assertTrue(metrics.contains("dbml_avro_translation_cache_misses_total 1"), metrics);
+		assertTrue(metrics.contains("dbml_avro_request_duration_seconds_count{endpoint=\"translate\"} 3"), metrics);
+		assertTrue(metrics.contains("dbml_avro_request_duration_seconds_bucket{endpoint=\"translate\",le=\"+Inf\"} 3"), metrics);
+	}
+	
+	@Test
+	void evictTranslation() throws Exception {
+		try (var small = TranslationServer.builder().setMaxCacheBytes(1024).start(new InetSocketAddress("localhost", 0))) {
+			var uri = URI.create("http://localhost:" + small.getAddress().getPort() + "/translate");
+			var large = DBML.replace("[not null]", "[not null, note: '" + "x".repeat(2048) + "']");
+			for (var body : new String[]{DBML, DBML, large, large}) {
+				var response = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+						HttpResponse.BodyHandlers.ofString());
+				assertEquals(200, response.statusCode(), response.body());
+			}
+			var metrics = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + small.getAddress().getPort() + "/metrics")).build(),
+					HttpResponse.BodyHandlers.ofString()).body();
+			assertTrue(metrics.contains("dbml_avro_translation_cache_hits_total 1"), metrics);
+			assertTrue(metrics.contains("dbml_avro_translation_cache_misses_total 3"), metrics);
+		}
+	}
+	
+	@Test
+	void getSchema() throws Exception {
+		var matcher = ETAG.matcher(post("/translate", DBML).body());
+		assertTrue(matcher.find());
+		var etag = matcher.group(1);
+		var response = get("/schemas/" + etag);
+		assertEquals(200, response.statusCode());
+		assertEquals('"' + etag + '"', response.headers().firstValue("ETag").orElseThrow());
+		assertEquals("User", new Schema.Parser().parse(response.body()).getName());
+		var notModified = client.send(HttpRequest.newBuilder(uri("/schemas/" + etag))
+				.header("If-None-Match", "\"0\", \"" + etag + '"')
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(304, notModified.statusCode());
+		assertEquals(404, get("/schemas/0").statusCode());
+	}
+	
+	@Test
+	void failTranslation() throws Exception {
+		var response = post("/translate", "Table User {\n  id unknown\n}");
+		assertEquals(400, response.statusCode());
+		assertFalse(response.body().isEmpty());
+		assertEquals(400, post("/translate?scale=x", DBML).statusCode());
+		assertEquals(400, post("/translate?unknown=1", DBML).statusCode());
+		assertEquals(400, post("/translate?profile=small", DBML).statusCode());
+		assertEquals(200, post("/translate?profile=compact", DBML).statusCode());
+	}
+	
+	@Test
+	void failMethod() throws Exception {
+		var response = get("/translate");
+		assertEquals(405, response.statusCode());
+		assertEquals("POST", response.headers().firstValue("Allow").orElseThrow());
+	}
+	
+	@Test
+	void failRequestSize() throws Exception {
+		try (var small = TranslationServer.builder().setMaxRequestSize(16).start(new InetSocketAddress("localhost", 0))) {
+			var response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + small.getAddress().getPort() + "/translate"))
+					.POST(HttpRequest.BodyPublishers.ofString(DBML))
+					.build(), HttpResponse.BodyHandlers.ofString());
+			assertEquals(413, response.statusCode());
+		}
+	}
+	
+	private HttpResponse<String> post(String path, String body) throws Exception {
+		return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+	
+	private HttpResponse<String> get(String path) throws Exception {
+		return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+	}
+	
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+	}
+}
@@ -2,6 +2,8 @@ package com.wn.dbml.avro;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TypeMapperTest {
@@ -74,7 +76,7 @@ class TypeMapperTest {
 	void mapDuration() {
 		var mapper = new TypeMapper(Config.builder().build());
 		var actual = mapper.map("duration");
-		assertEquals("{\"type\": \"fixed\", \"logicalType\": \"duration\", \"size\": 12}", actual);
+		assertEquals("{\"type\": \"fixed\", \"name\": \"duration\", \"logicalType\": \"duration\", \"size\": 12}", actual);
 	}
 	
 	@Test
@@ -89,4 +91,114 @@ class TypeMapperTest {
 		var mapper = new TypeMapper(Config.builder().build());
 		assertThrows(IllegalArgumentException.class, () -> mapper.map("json"));
 	}
+	
+	@Test
+	void mapLongestPrefix() {
+		var mapper = new TypeMapper(Config.builder().build());
+		var actual = mapper.map("timestamp with time zone");
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"local-timestamp-micros\"}", actual);
+	}
+	
+	@Test
+	void mapLongestCustomPrefix() {
+		var mapper = new TypeMapper(Config.builder().addTypeMapping("long", "integer").build());
+		assertEquals("long", mapper.map("integer"));
+		assertEquals("int", mapper.map("int4"));
+	}
+	
+	@Test
+	void failAmbiguousType() {
+		var config = Config.builder().addTypeMapping("long", "int").build();
+		assertThrows(IllegalArgumentException.class, () -> new TypeMapper(config));
+	}
+	
+	@Test
+	void resolveDecimal() {
+		var mapper = new TypeMapper(Config.builder().build());
+		var actual = mapper.resolve("decimal(18,3)");
+		assertEquals(new TypeMapper.AvroType("bytes", "decimal", Map.of("precision", 18, "scale", 3)), actual);
+		assertEquals("\"bytes\"", actual.toCanonicalJson());
+	}
+	
+	@Test
+	void resolveDurationCanonical() {
+		var mapper = new TypeMapper(Config.builder().build());
+		assertEquals("{\"name\":\"duration\",\"type\":\"fixed\",\"size\":12}", mapper.resolve("duration").toCanonicalJson());
+		assertEquals("{\"name\":\"com.example.duration\",\"type\":\"fixed\",\"size\":12}", mapper.resolve("duration").toCanonicalJson("com.example"));
+	}
+	
+	@Test
+	void mapCompactDecimal() {
+		var mapper = new TypeMapper(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build());
+		assertEquals("{\"type\": \"fixed\", \"name\": \"decimal9_2\", \"logicalType\": \"decimal\", \"precision\": 9, \"scale\": 2, \"size\": 4}", mapper.map("decimal(9,2)"));
+		assertEquals(new TypeMapper.AvroType("fixed", "decimal", Map.of("precision", 38, "scale", 0, "size", 16)), mapper.resolve("numeric(38)"));
+		assertEquals("{\"name\":\"decimal9_2\",\"type\":\"fixed\",\"size\":4}", mapper.resolve("decimal(9,2)").toCanonicalJson());
+	}
+	
+	@Test
+	void mapCompactBinary() {
+		var mapper = new TypeMapper(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build());
+		assertEquals("{\"type\": \"fixed\", \"name\": \"fixed16\", \"size\": 16}", mapper.map("binary(16)"));
+		assertEquals("bytes", mapper.map("binary"));
+		assertEquals("bytes", mapper.map("varbinary(16)"));
+		assertThrows(IllegalArgumentException.class, () -> mapper.map("binary(0)"));
+	}
+	
+	@Test
+	void narrowCompactIntegers() {
+		var config = Config.builder().addTypeMapping("long", "smallint").setEncodingProfile(EncodingProfile.COMPACT).build();
+		var mapper = new TypeMapper(config);
+		assertEquals("int", mapper.map("smallint"));
+		assertEquals("int", mapper.map("tinyint"));
+		assertEquals("long", mapper.map("bigint"));
+		assertThrows(IllegalArgumentException.class, () -> new TypeMapper(Config.builder().build()).map("tinyint"));
+	}
+	
+	@Test
+	void mapCompactTimePrecision() {
+		var mapper = new TypeMapper(Config.builder().setEncodingProfile(EncodingProfile.COMPACT).build());
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"timestamp-millis\"}", mapper.map("timestamp(3)"));
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"timestamp-micros\"}", mapper.map("timestamp(6)"));
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"timestamp-micros\"}", mapper.map("timestamp"));
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"local-timestamp-millis\"}", mapper.map("timestamptz(0)"));
+		assertEquals("{\"type\": \"int\", \"logicalType\": \"time-millis\"}", mapper.map("time(3)"));
+	}
+	
+	@Test
+	void mapStandardProfile() {
+		var mapper = new TypeMapper(Config.builder().build());
+		assertEquals("{\"type\": \"bytes\", \"logicalType\": \"decimal\", \"precision\": 9, \"scale\": 2}", mapper.map("decimal(9,2)"));
+		assertEquals("bytes", mapper.map("binary(16)"));
+		assertEquals("{\"type\": \"long\", \"logicalType\": \"timestamp-micros\"}", mapper.map("timestamp(3)"));
+	}
+	
+	@Test
+	void memoize() {
+		var mapper = new TypeMapper(Config.builder().build());
+		var first = mapper.map("decimal(18,4)");
+		assertEquals(first, mapper.map("decimal(18,4)"));
+		mapper.map("integer");
+		assertEquals(1, mapper.getCacheHits());
+		assertEquals(2, mapper.getCacheMisses());
+		assertEquals(1 / 3.0, mapper.getCacheHitRatio());
+	}
+	
+	@Test
+	void memoizeBounded() {
+		var mapper = new TypeMapper(Config.builder().build(), 1);
+		mapper.map("integer");
+		mapper.map("bigint");
+		mapper.map("bigint");
+		mapper.map("integer");
+		assertEquals(1, mapper.getCacheHits());
+		assertEquals(3, mapper.getCacheMisses());
+	}
+	
+	@Test
+	void failMissingTypeMemoized() {
+		var mapper = new TypeMapper(Config.builder().build());
+		assertThrows(IllegalArgumentException.class, () -> mapper.map("json"));
+		assertThrows(IllegalArgumentException.class, () -> mapper.map("json"));
+		assertEquals(0, mapper.getCacheHits());
+	}
 }
\ No newline at end of file